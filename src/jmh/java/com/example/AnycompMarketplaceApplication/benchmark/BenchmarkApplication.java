@@ -0,0 +1,40 @@
+package com.example.AnycompMarketplaceApplication.benchmark;
+
+import com.example.AnycompMarketplaceApplication.AnycompMarketplaceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Starts the application on a random port against a private in-memory H2 database in PostgreSQL mode,
+// opened by both the JDBC pool and the R2DBC pool of the item streams
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraProperties) {
+        String database = "bench-" + UUID.randomUUID();
+        String options = "MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:" + database + ";" + options,
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.r2dbc.url=r2dbc:h2:mem:///" + database + "?options=" + options,
+                "spring.r2dbc.username=sa",
+                "spring.r2dbc.password=",
+                "spring.jpa.show-sql=false",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "server.port=0",
+                "logging.level.root=WARN"));
+        properties.addAll(List.of(extraProperties));
+
+        // Passed as command-line arguments so they override application.properties
+        return new SpringApplicationBuilder(AnycompMarketplaceApplication.class)
+                .logStartupInfo(false)
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.AnycompMarketplaceApplication.benchmark;
+
+import com.example.AnycompMarketplaceApplication.entity.Buyer;
+import com.example.AnycompMarketplaceApplication.entity.Item;
+import com.example.AnycompMarketplaceApplication.entity.Purchase;
+import com.example.AnycompMarketplaceApplication.entity.Seller;
+import com.example.AnycompMarketplaceApplication.repository.BuyerRepository;
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
+import com.example.AnycompMarketplaceApplication.repository.PurchaseRepository;
+import com.example.AnycompMarketplaceApplication.repository.SellerRepository;
+import org.springframework.context.ApplicationContext;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills the database with a deterministic data set: the same seed and sizes always produce the same
+ * sellers, items, buyers and purchases, so benchmark runs are comparable across commits.
+ */
+public class BenchmarkDataGenerator {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final long PURCHASE_WINDOW_MILLIS = 365L * 24 * 60 * 60 * 1000;
+
+    private final SellerRepository sellerRepository;
+    private final ItemRepository itemRepository;
+    private final BuyerRepository buyerRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final Random random;
+
+    private final List<Long> sellerIds = new ArrayList<>();
+    private final List<Long> itemIds = new ArrayList<>();
+    private final List<Long> buyerIds = new ArrayList<>();
+
+    public BenchmarkDataGenerator(ApplicationContext context, long seed) {
+        this.sellerRepository = context.getBean(SellerRepository.class);
+        this.itemRepository = context.getBean(ItemRepository.class);
+        this.buyerRepository = context.getBean(BuyerRepository.class);
+        this.purchaseRepository = context.getBean(PurchaseRepository.class);
+        this.random = new Random(seed);
+    }
+
+    public void generate(int sellers, int itemsPerSeller, int buyers, int purchases) {
+        List<Seller> savedSellers = new ArrayList<>(sellers);
+        for (int from = 0; from < sellers; from += CHUNK_SIZE) {
+            List<Seller> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(from + CHUNK_SIZE, sellers); i++) {
+                Seller seller = new Seller();
+                seller.setName("Seller " + i);
+                seller.setEmail("seller" + i + "@example.com");
+                chunk.add(seller);
+            }
+            savedSellers.addAll(sellerRepository.saveAll(chunk));
+        }
+        savedSellers.forEach(seller -> sellerIds.add(seller.getId()));
+
+        List<Item> chunk = new ArrayList<>();
+        List<Item> savedItems = new ArrayList<>();
+        for (Seller seller : savedSellers) {
+            for (int i = 0; i < itemsPerSeller; i++) {
+                Item item = new Item();
+                item.setName("Item " + seller.getId() + "-" + i);
+                item.setDescription("Generated item " + i + " of seller " + seller.getId());
+                item.setPrice(1 + random.nextInt(50_000) / 100.0);
+                item.setQuantity(Integer.MAX_VALUE / 2);
+                item.setSeller(seller);
+                chunk.add(item);
+                if (chunk.size() == CHUNK_SIZE) {
+                    savedItems.addAll(itemRepository.saveAll(chunk));
+                    chunk.clear();
+                }
+            }
+        }
+        savedItems.addAll(itemRepository.saveAll(chunk));
+        savedItems.forEach(item -> itemIds.add(item.getId()));
+
+        List<Buyer> savedBuyers = new ArrayList<>(buyers);
+        for (int from = 0; from < buyers; from += CHUNK_SIZE) {
+            List<Buyer> buyerChunk = new ArrayList<>();
+            for (int i = from; i < Math.min(from + CHUNK_SIZE, buyers); i++) {
+                Buyer buyer = new Buyer();
+                buyer.setName("Buyer " + i);
+                buyer.setEmail("buyer" + i + "@example.com");
+                buyerChunk.add(buyer);
+            }
+            savedBuyers.addAll(buyerRepository.saveAll(buyerChunk));
+        }
+        savedBuyers.forEach(buyer -> buyerIds.add(buyer.getId()));
+
+        long now = System.currentTimeMillis();
+        for (int from = 0; from < purchases; from += CHUNK_SIZE) {
+            List<Purchase> purchaseChunk = new ArrayList<>();
+            for (int i = from; i < Math.min(from + CHUNK_SIZE, purchases); i++) {
+                Purchase purchase = new Purchase();
+                purchase.setBuyer(savedBuyers.get(random.nextInt(savedBuyers.size())));
+                purchase.setItem(savedItems.get(random.nextInt(savedItems.size())));
+                purchase.setQuantity(1 + random.nextInt(5));
+                purchase.setPurchaseDate(new Timestamp(now - (long) (random.nextDouble() * PURCHASE_WINDOW_MILLIS)));
+                purchaseChunk.add(purchase);
+            }
+            purchaseRepository.saveAll(purchaseChunk);
+        }
+    }
+
+    public List<Long> getSellerIds() {
+        return sellerIds;
+    }
+
+    public List<Long> getItemIds() {
+        return itemIds;
+    }
+
+    public List<Long> getBuyerIds() {
+        return buyerIds;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.AnycompMarketplaceApplication.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Closed-loop HTTP load test comparing the blocking catalog reads of {@code ItemController} (JPA on
+ * JDBC) with the reactive streams of {@code ItemStreamController} (R2DBC), with the same number of
+ * database connections and request threads on each side:
+ * <ul>
+ *     <li>{@code GET /items?page=&size=20} against {@code GET /items/stream?afterId=&limit=20}</li>
+ *     <li>{@code GET /items/sellers/{id}?size=50} against {@code GET /items/sellers/{id}/stream?limit=50}</li>
+ * </ul>
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec \
+ *     -Dbench.main=com.example.AnycompMarketplaceApplication.benchmark.CatalogStreamLoadTest \
+ *     -Djmh.args="[clients] [seconds]"
+ * </pre>
+ * The default of 10000 clients keeps 10000 connections open, which needs {@code ulimit -n} above
+ * 20000 (both ends run in this JVM). The item cache and the second-level cache are off, so both
+ * sides read the database on every request. The embedded H2 database answers in microseconds; point
+ * both pools at PostgreSQL to see the effect of real database latency, where the blocking side runs
+ * out of request threads and the reactive side does not.
+ */
+public class CatalogStreamLoadTest {
+
+    private static final int POOL_SIZE = 30;
+    private static final int WARMUP_SECONDS = 5;
+    private static final int SELLERS = 200;
+    private static final int ITEMS_PER_SELLER = 50;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        ConfigurableApplicationContext context = BenchmarkApplication.start(
+                "server.tomcat.threads.max=200",
+                "server.tomcat.max-connections=" + (clients + 1000),
+                "server.tomcat.accept-count=" + clients,
+                "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                "spring.r2dbc.pool.max-size=" + POOL_SIZE,
+                "marketplace.cache.items.enabled=false",
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        try {
+            BenchmarkDataGenerator generator = new BenchmarkDataGenerator(context, 42);
+            generator.generate(SELLERS, ITEMS_PER_SELLER, 10, 0);
+            List<Long> sellerIds = generator.getSellerIds();
+            List<Long> itemIds = generator.getItemIds();
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpLoadDriver.login(baseUrl);
+            int pages = itemIds.size() / 20;
+
+            run(client, "GET /items", clients, seconds, random -> get(baseUrl
+                    + "/items?page=" + random.nextInt(pages) + "&size=20"));
+            run(client, "GET /items/stream", clients, seconds, random -> get(baseUrl
+                    + "/items/stream?afterId=" + (itemIds.get(random.nextInt(pages) * 20) - 1) + "&limit=20"));
+            run(client, "GET /items/sellers/{id}", clients, seconds, random -> get(baseUrl
+                    + "/items/sellers/" + sellerIds.get(random.nextInt(sellerIds.size())) + "?size=" + ITEMS_PER_SELLER));
+            run(client, "GET /items/sellers/{id}/stream", clients, seconds, random -> get(baseUrl
+                    + "/items/sellers/" + sellerIds.get(random.nextInt(sellerIds.size())) + "/stream?limit=" + ITEMS_PER_SELLER));
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void run(HttpClient client, String scenario, int clients, int seconds,
+                            Function<ThreadLocalRandom, HttpRequest> requests) throws InterruptedException {
+        HttpLoadDriver.drive(client, requests, clients, WARMUP_SECONDS);
+        HttpLoadDriver.report(scenario.endsWith("stream") ? "reactive" : "blocking", scenario,
+                HttpLoadDriver.drive(client, requests, clients, seconds));
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.AnycompMarketplaceApplication.benchmark;
+
+import java.net.CookieManager;
+import java.net.CookiePolicy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Closed-loop HTTP driver shared by the load tests: logs in once, then keeps a fixed number of requests in flight
+final class HttpLoadDriver {
+
+    private static final String USERNAME = "myuser";
+    private static final String PASSWORD = "mypassword";
+
+    private HttpLoadDriver() {
+    }
+
+    // Form login; the session cookie is kept by the client's cookie manager
+    static HttpClient login(String baseUrl) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .cookieHandler(new CookieManager(null, CookiePolicy.ACCEPT_ALL))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("username=" + USERNAME + "&password=" + PASSWORD))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        if (response.headers().firstValue("Location").map(location -> location.contains("error")).orElse(true)) {
+            throw new IllegalStateException("Login failed with status " + response.statusCode());
+        }
+        return client;
+    }
+
+    // Keeps `clients` requests in flight for the given duration
+    static Result drive(HttpClient client, Function<ThreadLocalRandom, HttpRequest> requests,
+                                int clients, int seconds) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(clients);
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        while (System.nanoTime() < deadline) {
+            if (!inFlight.tryAcquire(10, TimeUnit.MILLISECONDS)) {
+                continue;
+            }
+            long start = System.nanoTime();
+            CompletableFuture<HttpResponse<Void>> response =
+                    client.sendAsync(requests.apply(ThreadLocalRandom.current()), HttpResponse.BodyHandlers.discarding());
+            response.whenComplete((result, failure) -> {
+                if (failure != null || result.statusCode() >= 300) {
+                    errors.increment();
+                } else {
+                    latencies.add(System.nanoTime() - start);
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(clients);
+        return new Result(latencies.stream().mapToLong(Long::longValue).sorted().toArray(), errors.sum(), seconds);
+    }
+
+    static void report(String mode, String scenario, Result result) {
+        System.out.printf("%-8s %-32s %10.1f req/s  p50 %7.2f ms  p99 %7.2f ms  max %8.2f ms  errors %d%n",
+                mode, scenario, result.latencies.length / (double) result.seconds,
+                result.percentile(0.50), result.percentile(0.99), result.percentile(1.0), result.errors);
+    }
+
+    record Result(long[] latencies, long errors, int seconds) {
+
+        private double percentile(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * latencies.length) - 1;
+            return latencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
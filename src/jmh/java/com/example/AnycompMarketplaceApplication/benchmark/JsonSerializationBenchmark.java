@@ -0,0 +1,73 @@
+package com.example.AnycompMarketplaceApplication.benchmark;
+
+import com.example.AnycompMarketplaceApplication.dto.ItemResponseDTO;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<ItemResponseDTO> itemPage;
+    private PurchaseResponse purchaseResponse;
+
+    @Setup
+    public void setUp() {
+        // Same builder Spring MVC uses for its message converters
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Random random = new Random(42);
+
+        List<ItemResponseDTO> items = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            ItemResponseDTO item = new ItemResponseDTO();
+            item.setId((long) i);
+            item.setName("Item " + i);
+            item.setPrice(1 + random.nextInt(50_000) / 100.0);
+            item.setSellerId((long) random.nextInt(100));
+            items.add(item);
+        }
+        itemPage = new PageImpl<>(items, PageRequest.of(3, pageSize), 100_000);
+
+        purchaseResponse = new PurchaseResponse(1L, 2L, "Buyer 2", 3L, "Item 3", 1, new Timestamp(1_700_000_000_000L));
+    }
+
+    @Benchmark
+    public byte[] serializeItemPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(itemPage);
+    }
+
+    @Benchmark
+    public byte[] serializePurchaseResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(purchaseResponse);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.AnycompMarketplaceApplication.benchmark;
+
+import com.example.AnycompMarketplaceApplication.dto.CursorPage;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseResponse;
+import com.example.AnycompMarketplaceApplication.service.PurchaseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurchaseServiceBenchmark {
+
+    @Param({"100"})
+    public int sellers;
+
+    @Param({"50"})
+    public int itemsPerSeller;
+
+    @Param({"1000"})
+    public int buyers;
+
+    @Param({"100000"})
+    public int purchases;
+
+    @Param({"20"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private PurchaseService purchaseService;
+    private List<Long> itemIds;
+    private List<Long> buyerIds;
+    private int pages;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkDataGenerator generator = new BenchmarkDataGenerator(context, 42);
+        generator.generate(sellers, itemsPerSeller, buyers, purchases);
+        purchaseService = context.getBean(PurchaseService.class);
+        itemIds = generator.getItemIds();
+        buyerIds = generator.getBuyerIds();
+        pages = Math.max(1, purchases / pageSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public PurchaseResponse createPurchase() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return purchaseService.createPurchase(
+                buyerIds.get(random.nextInt(buyerIds.size())),
+                itemIds.get(random.nextInt(itemIds.size())),
+                1);
+    }
+
+    @Benchmark
+    public Page<PurchaseResponse> getAllPurchasesFirstPage() {
+        return purchaseService.getAllPurchases(PageRequest.of(0, pageSize));
+    }
+
+    @Benchmark
+    public Page<PurchaseResponse> getAllPurchasesRandomPage() {
+        return purchaseService.getAllPurchases(PageRequest.of(ThreadLocalRandom.current().nextInt(pages), pageSize));
+    }
+
+    @Benchmark
+    public CursorPage<PurchaseResponse> getPurchasesFirstCursorPage() {
+        return purchaseService.getPurchasesAfter(null, pageSize);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.AnycompMarketplaceApplication.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures time to first successful {@code GET /items}: from launching the JVM until the endpoint
+ * answers 200, which is what a readiness probe and the autoscaler wait for. Each mode starts a fresh
+ * process against the database given in the application arguments:
+ * <ul>
+ *     <li>{@code default}: the jar as built, with schema validation</li>
+ *     <li>{@code fast-startup}: the same jar with the {@code fast-startup} Spring profile</li>
+ *     <li>{@code aot-cds}: the AOT-processed, extracted jar with its CDS archive and the same profile</li>
+ * </ul>
+ * <pre>
+ * mvn -Pfast-startup package -DskipTests
+ * mvn -Pbenchmark test-compile exec:exec \
+ *     -Dbench.main=com.example.AnycompMarketplaceApplication.benchmark.StartupBenchmark \
+ *     -Djmh.args="[runs] [--application.argument=value ...]"
+ * </pre>
+ * Pass the datasource and R2DBC urls as application arguments unless the defaults in
+ * application.properties reach a migrated database. Application output goes to
+ * {@code target/startup-benchmark.log}.
+ */
+public class StartupBenchmark {
+
+    private static final String USERNAME = "myuser";
+    private static final String PASSWORD = "mypassword";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        List<String> applicationArguments = args.length > 1 ? Arrays.asList(args).subList(1, args.length) : List.of();
+        File target = new File("target");
+        File jar = new File(target, "AnycompMarketplaceApplication-0.0.1-SNAPSHOT.jar");
+        File extracted = new File(target, "app/application.jar");
+        File archive = new File(target, "app/application.jsa");
+        File log = new File(target, "startup-benchmark.log");
+
+        run("default", runs, log, applicationArguments, jar, List.of());
+        run("fast-startup", runs, log, applicationArguments, jar, List.of(),
+                "--spring.profiles.active=fast-startup");
+        run("aot-cds", runs, log, applicationArguments, extracted,
+                List.of("-XX:SharedArchiveFile=" + archive.getPath(), "-Dspring.aot.enabled=true"),
+                "--spring.profiles.active=fast-startup");
+    }
+
+    private static void run(String mode, int runs, File log, List<String> applicationArguments, File jar,
+                            List<String> jvmArguments, String... modeArguments) throws Exception {
+        if (!jar.isFile()) {
+            System.out.printf("%-13s skipped, %s not found (mvn -Pfast-startup package)%n", mode, jar);
+            return;
+        }
+        long[] millis = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            millis[run] = timeToFirstRequest(log, applicationArguments, jar, jvmArguments, modeArguments);
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-13s first GET /items after  min %6d ms  median %6d ms  max %6d ms  (%d runs)%n",
+                mode, millis[0], millis[runs / 2], millis[runs - 1], runs);
+    }
+
+    private static long timeToFirstRequest(File log, List<String> applicationArguments, File jar,
+                                           List<String> jvmArguments, String... modeArguments) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.addAll(jvmArguments);
+        command.addAll(List.of("-jar", jar.getPath(), "--server.port=" + port,
+                // Stateless mode answers HTTP Basic directly instead of redirecting to the login form
+                "--marketplace.security.mode=token",
+                "--marketplace.security.token.secret=" + UUID.randomUUID() + UUID.randomUUID()));
+        command.addAll(List.of(modeArguments));
+        command.addAll(applicationArguments);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/items?size=1"))
+                .header("Authorization", "Basic " + Base64.getEncoder()
+                        .encodeToString((USERNAME + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8)))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log))
+                .start();
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("No successful GET /items within " + STARTUP_TIMEOUT + ", see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.AnycompMarketplaceApplication.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Closed-loop HTTP load test comparing Tomcat on platform threads with the {@code virtual-threads}
+ * profile, for {@code GET /items} and {@code POST /purchase}.
+ *
+ * <p>Run on a Java 21 JVM, otherwise the virtual-thread setting is ignored:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.java=$JAVA21_HOME/bin/java \
+ *     -Dbench.main=com.example.AnycompMarketplaceApplication.benchmark.ThreadModelLoadTest \
+ *     -Djmh.args="[clients] [seconds]"
+ * </pre>
+ * Both modes get the same connection pool, so the difference is the request thread model alone. The
+ * embedded H2 database answers in microseconds; the gap between the modes widens with real database
+ * latency, where platform threads spend their time blocked on I/O.
+ */
+public class ThreadModelLoadTest {
+
+    private static final int POOL_SIZE = 30;
+    private static final int WARMUP_SECONDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        if (Runtime.version().feature() < 21) {
+            System.out.println("WARNING: running on Java " + Runtime.version().feature()
+                    + ", virtual threads need Java 21 and both modes will use platform threads");
+        }
+
+        run("platform", clients, seconds,
+                "spring.threads.virtual.enabled=false",
+                "server.tomcat.threads.max=200",
+                "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE);
+        run("virtual", clients, seconds,
+                "spring.profiles.active=virtual-threads",
+                "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE);
+    }
+
+    private static void run(String mode, int clients, int seconds, String... properties) throws Exception {
+        ConfigurableApplicationContext context = BenchmarkApplication.start(properties);
+        try {
+            BenchmarkDataGenerator generator = new BenchmarkDataGenerator(context, 42);
+            generator.generate(100, 50, 1000, 10_000);
+            List<Long> itemIds = generator.getItemIds();
+            List<Long> buyerIds = generator.getBuyerIds();
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpLoadDriver.login(baseUrl);
+
+            Function<ThreadLocalRandom, HttpRequest> listItems = random -> HttpRequest
+                    .newBuilder(URI.create(baseUrl + "/items?page=" + random.nextInt(250) + "&size=20"))
+                    .GET()
+                    .build();
+            Function<ThreadLocalRandom, HttpRequest> purchase = random -> HttpRequest
+                    .newBuilder(URI.create(baseUrl + "/purchase"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"buyerId\":"
+                            + buyerIds.get(random.nextInt(buyerIds.size()))
+                            + ",\"itemId\":" + itemIds.get(random.nextInt(itemIds.size()))
+                            + ",\"quantity\":1}"))
+                    .build();
+
+            HttpLoadDriver.drive(client, listItems, clients, WARMUP_SECONDS);
+            HttpLoadDriver.report(mode, "GET /items", HttpLoadDriver.drive(client, listItems, clients, seconds));
+            HttpLoadDriver.drive(client, purchase, clients, WARMUP_SECONDS);
+            HttpLoadDriver.report(mode, "POST /purchase", HttpLoadDriver.drive(client, purchase, clients, seconds));
+        } finally {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.dto.ItemResponseDTO;
+import com.example.AnycompMarketplaceApplication.entity.Item;
+import com.example.AnycompMarketplaceApplication.entity.Seller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Lives in the service package to reach the package-private ItemService.convertToDTO
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemMappingBenchmark {
+
+    private ItemService itemService;
+    private Item item;
+
+    @Setup
+    public void setUp() {
+        itemService = new ItemService(null, null, null, null, null);
+
+        Seller seller = new Seller();
+        seller.setId(7L);
+        item = new Item();
+        item.setId(42L);
+        item.setName("Benchmark item");
+        item.setDescription("An item used by the mapping benchmark");
+        item.setPrice(19.99);
+        item.setQuantity(100);
+        item.setSeller(seller);
+    }
+
+    @Benchmark
+    public ItemResponseDTO convertToDTO() {
+        return itemService.convertToDTO(item);
+    }
+}
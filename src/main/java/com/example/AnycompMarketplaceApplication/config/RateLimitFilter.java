@@ -0,0 +1,93 @@
+package com.example.AnycompMarketplaceApplication.config;
+
+import com.example.AnycompMarketplaceApplication.service.RateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Throttles each caller per route group: purchases, item reads and everything else. Callers are the
+ * authenticated principal, or the client address for anonymous requests (behind a proxy, set
+ * {@code server.forward-headers-strategy} so it is the real client). Runs inside the security
+ * chain, after authentication; see {@link SecurityConfig}.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final RateLimiter.Limit purchases;
+    private final RateLimiter.Limit itemReads;
+    private final RateLimiter.Limit defaults;
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           @Value("${marketplace.rate-limit.purchases.capacity:20}") long purchaseCapacity,
+                           @Value("${marketplace.rate-limit.purchases.per-second:10}") double purchasePerSecond,
+                           @Value("${marketplace.rate-limit.item-reads.capacity:200}") long itemReadCapacity,
+                           @Value("${marketplace.rate-limit.item-reads.per-second:100}") double itemReadPerSecond,
+                           @Value("${marketplace.rate-limit.default.capacity:100}") long defaultCapacity,
+                           @Value("${marketplace.rate-limit.default.per-second:50}") double defaultPerSecond) {
+        this.rateLimiter = rateLimiter;
+        this.purchases = new RateLimiter.Limit("purchases", purchaseCapacity, purchasePerSecond);
+        this.itemReads = new RateLimiter.Limit("item-reads", itemReadCapacity, itemReadPerSecond);
+        this.defaults = new RateLimiter.Limit("default", defaultCapacity, defaultPerSecond);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !rateLimiter.isEnabled() || path.startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Duration wait = rateLimiter.tryAcquire(limitFor(request), caller(request), 1);
+        if (!wait.isZero()) {
+            writeTooManyRequests(response, wait);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static void writeTooManyRequests(HttpServletResponse response, Duration wait) {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds(wait));
+    }
+
+    // Whole seconds, rounded up, for the Retry-After header; also used for PurchaseController's per-buyer limit
+    public static String retryAfterSeconds(Duration wait) {
+        return String.valueOf(Math.max(1, (wait.toMillis() + 999) / 1000));
+    }
+
+    private RateLimiter.Limit limitFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (HttpMethod.POST.matches(request.getMethod()) && (path.equals("/purchase") || path.startsWith("/purchase/"))) {
+            return purchases;
+        }
+        if (HttpMethod.GET.matches(request.getMethod()) && (path.equals("/items") || path.startsWith("/items/"))) {
+            return itemReads;
+        }
+        return defaults;
+    }
+
+    private static String caller(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "addr:" + request.getRemoteAddr();
+    }
+}
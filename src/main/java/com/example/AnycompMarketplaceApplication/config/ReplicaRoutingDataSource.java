@@ -0,0 +1,112 @@
+package com.example.AnycompMarketplaceApplication.config;
+
+import com.example.AnycompMarketplaceApplication.service.ReplicaReads;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Hands out replica connections inside {@link ReplicaReads} transactions and primary connections
+ * otherwise. The replica is only used while its last measured lag is within {@code maxLag}; a
+ * failed probe or a failed connection attempt sends reads to the primary until the next good probe.
+ *
+ * <p>The decision is made when the connection is first used, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction
+ * manager asks for a connection before the transaction's read-only flag and name are bound.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+
+    private volatile boolean replicaUsable;
+    private volatile double lastLagSeconds = Double.NaN;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, String lagQuery, Duration maxLag) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReplicaReads.isActive() && replicaUsable) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                markUnusable("connection failed", e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (ReplicaReads.isActive() && replicaUsable) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                markUnusable("connection failed", e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${marketplace.datasource.replica.check-interval-ms:1000}")
+    public void checkReplica() {
+        double lag;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            lag = resultSet.next() ? resultSet.getDouble(1) : 0;
+        } catch (SQLException e) {
+            markUnusable("lag probe failed", e);
+            return;
+        }
+        lastLagSeconds = lag;
+        boolean usable = lag <= maxLagSeconds;
+        if (usable != replicaUsable) {
+            log.info("Read replica {} (lag {}s, max {}s)", usable ? "in use" : "bypassed", lag, maxLagSeconds);
+        }
+        replicaUsable = usable;
+    }
+
+    private void markUnusable(String reason, SQLException e) {
+        if (replicaUsable) {
+            log.warn("Read replica bypassed: {}: {}", reason, e.getMessage());
+        }
+        replicaUsable = false;
+        lastLagSeconds = Double.NaN;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("marketplace.datasource.replica.lag", this, source -> source.lastLagSeconds)
+                .description("Replication lag measured by the last probe, NaN if the replica is unreachable")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("marketplace.datasource.replica.usable", this, source -> source.replicaUsable ? 1 : 0)
+                .description("Whether replica reads are currently sent to the replica")
+                .register(registry);
+    }
+}
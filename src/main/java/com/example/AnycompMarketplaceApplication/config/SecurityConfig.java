@@ -1,26 +1,141 @@
 package com.example.AnycompMarketplaceApplication.config;
 
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
+import com.example.AnycompMarketplaceApplication.service.TokenService;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import java.util.Locale;
+import java.util.Optional;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 
 @Configuration
 public class SecurityConfig {
 
+    private final String mode;
+
+    // "form" keeps the login page and HTTP sessions; "token" is stateless (bearer tokens, or HTTP Basic to obtain one)
+    public SecurityConfig(@Value("${marketplace.security.mode:form}") String mode) {
+        this.mode = mode;
+    }
+
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, RateLimitFilter rateLimitFilter,
+                                                   TokenAuthenticationFilter tokenAuthenticationFilter,
+                                                   TokenService tokenService, ItemRepository itemRepository) throws Exception {
+        AuthorizationManager<RequestAuthorizationContext> sellerOwner = adminOrOwner("seller");
+        AuthorizationManager<RequestAuthorizationContext> buyerOwner = adminOrOwner("buyer");
+        AuthorizationManager<RequestAuthorizationContext> itemOwner = (authentication, context) ->
+                new AuthorizationDecision(isAdmin(authentication.get()) || itemSellerId(itemRepository, context)
+                        .map(sellerId -> isAdminOrOwner(authentication.get(), "seller", sellerId))
+                        .orElse(false));
+
         http
                 .authorizeHttpRequests(authorizeRequests ->
                         authorizeRequests
+                                .dispatcherTypeMatchers(DispatcherType.ERROR).permitAll()  // Error pages keep the status of the failed request
                                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()  // Allow Swagger UI
-                                .anyRequest().authenticated()  // Require authentication for any other request
+                                .requestMatchers("/actuator/health").permitAll()  // Allow probes; metric scrapes authenticate as an operator
+                                // Buyer and seller tokens get catalog reads, their own records and purchases (PurchaseController checks the buyer)
+                                .requestMatchers(HttpMethod.GET, "/items/{id}/sales").access(itemOwner)
+                                .requestMatchers(HttpMethod.GET, "/items", "/items/**", "/sellers", "/sellers/cursor", "/sellers/{id}").authenticated()
+                                .requestMatchers(HttpMethod.GET, "/sellers/{id}/sales").access(sellerOwner)
+                                .requestMatchers(HttpMethod.PUT, "/sellers/{id}").access(sellerOwner)
+                                .requestMatchers(HttpMethod.DELETE, "/sellers/{id}").access(sellerOwner)
+                                .requestMatchers(HttpMethod.POST, "/items/sellers/{id}", "/items/sellers/{id}/import").access(sellerOwner)
+                                .requestMatchers(HttpMethod.PUT, "/items/{id}").access(itemOwner)
+                                .requestMatchers(HttpMethod.DELETE, "/items/{id}").access(itemOwner)
+                                .requestMatchers(HttpMethod.GET, "/buyers/{id}", "/buyers/{id}/purchases").access(buyerOwner)
+                                .requestMatchers(HttpMethod.PUT, "/buyers/{id}").access(buyerOwner)
+                                .requestMatchers(HttpMethod.DELETE, "/buyers/{id}").access(buyerOwner)
+                                .requestMatchers(HttpMethod.POST, "/purchase", "/purchase/batch").hasAnyRole("ADMIN", "BUYER")
+                                .anyRequest().hasRole("ADMIN")  // Everything else (listings, creation, /auth/token, other actuator endpoints) is for operators
                 )
                 .csrf(csrf -> csrf.disable())  // Disable CSRF (use cautiously)
-                .formLogin(withDefaults());  // Default login form (if needed)
+                .addFilterBefore(tokenAuthenticationFilter, BasicAuthenticationFilter.class)  // Accept bearer tokens in either mode
+                .addFilterBefore(rateLimitFilter, AuthorizationFilter.class);  // Throttle once the caller is known
+
+        switch (mode) {
+            case "form" -> http
+                    .formLogin(withDefaults())  // Default login form (if needed)
+                    .httpBasic(withDefaults());  // For clients that cannot log in through a form, such as the Prometheus scraper
+            case "token" -> {
+                if (!tokenService.isEnabled()) {
+                    throw new IllegalStateException("marketplace.security.mode=token requires marketplace.security.token.secret");
+                }
+                http
+                        .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))  // Never create or read sessions
+                        .requestCache(cache -> cache.disable())  // No saved request to redirect back to
+                        .httpBasic(withDefaults());  // Answers 401 instead of redirecting to a login page
+            }
+            default -> throw new IllegalStateException("Unknown marketplace.security.mode: " + mode);
+        }
 
         return http.build();  // Return the configured SecurityFilterChain
     }
+
+    /**
+     * True for operators (role ADMIN) and for the buyer or seller token of the record itself, whose
+     * principal is {@code buyer:{id}} or {@code seller:{id}}; see {@code AuthController}.
+     */
+    public static boolean isAdminOrOwner(Authentication authentication, String kind, Object id) {
+        if (isAdmin(authentication)) {
+            return true;
+        }
+        return authentication != null && id != null
+                && hasRole(authentication, "ROLE_" + kind.toUpperCase(Locale.ROOT))
+                && authentication.getName().equals(kind + ":" + id);
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication != null && hasRole(authentication, "ROLE_ADMIN");
+    }
+
+    private static boolean hasRole(Authentication authentication, String role) {
+        return authentication.isAuthenticated()
+                && authentication.getAuthorities().stream().anyMatch(authority -> role.equals(authority.getAuthority()));
+    }
+
+    private static AuthorizationManager<RequestAuthorizationContext> adminOrOwner(String kind) {
+        return (authentication, context) ->
+                new AuthorizationDecision(isAdminOrOwner(authentication.get(), kind, context.getVariables().get("id")));
+    }
+
+    private static Optional<Long> itemSellerId(ItemRepository itemRepository, RequestAuthorizationContext context) {
+        try {
+            return itemRepository.findSellerIdById(Long.valueOf(context.getVariables().get("id")));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    // Both filters run inside the security chain only, not a second time as servlet filters
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<TokenAuthenticationFilter> tokenAuthenticationFilterRegistration(
+            TokenAuthenticationFilter tokenAuthenticationFilter) {
+        FilterRegistrationBean<TokenAuthenticationFilter> registration = new FilterRegistrationBean<>(tokenAuthenticationFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
 }
@@ -0,0 +1,35 @@
+package com.example.AnycompMarketplaceApplication.config;
+
+import com.example.AnycompMarketplaceApplication.dto.SqlStatementSummary;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code GET /actuator/sqlstatements?top=20&sort=mean} lists the slowest normalized SQL statements
+ * (sort by {@code mean}, {@code max} or {@code total} time); {@code DELETE} starts the statistics over.
+ */
+@Component
+@Endpoint(id = "sqlstatements")
+public class SqlStatementsEndpoint {
+
+    private final SqlTracer sqlTracer;
+
+    public SqlStatementsEndpoint(SqlTracer sqlTracer) {
+        this.sqlTracer = sqlTracer;
+    }
+
+    @ReadOperation
+    public List<SqlStatementSummary> statements(@Nullable Integer top, @Nullable String sort) {
+        return sqlTracer.top(top != null ? top : 20, sort != null ? sort : "mean");
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlTracer.clear();
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.AnycompMarketplaceApplication.config;
+
+import com.example.AnycompMarketplaceApplication.dto.SqlStatementSummary;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Times every JDBC statement on the primary data source (wrapped by datasource-proxy, see
+ * {@link MetricsConfig}) and replaces {@code spring.jpa.show-sql}.
+ *
+ * <ul>
+ *   <li>Durations go to the {@code marketplace.sql.statement.duration} timer, by statement type.</li>
+ *   <li>Each statement is also aggregated under its normalized text (literals replaced by {@code ?},
+ *   {@code in} lists collapsed), for the {@code sqlstatements} actuator endpoint.</li>
+ *   <li>Statements slower than {@code slow-threshold} are always logged, the others with probability
+ *   {@code sample-rate}, to the {@code marketplace.sql} logger. logback-spring.xml gives that logger a
+ *   non-blocking async appender, so a statement never waits on the console. Bind parameters are never
+ *   logged.</li>
+ *   <li>The statements run by the current thread are counted for {@link SqlStatementMetricsFilter}.</li>
+ * </ul>
+ *
+ * <p>Statements on the R2DBC connection factory (the item streams) are not traced.
+ */
+@Component
+public class SqlTracer implements QueryExecutionListener, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger("marketplace.sql");
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.$])\\d+(?:\\.\\d+)?(?![\\w$])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final int maxStatements;
+    private final Cache<String, String> normalized;
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Counter slowStatements;
+    private final LongAdder untracked = new LongAdder();
+
+    private final ThreadLocal<long[]> startedAt = ThreadLocal.withInitial(() -> new long[1]);
+    private final ThreadLocal<int[]> count = ThreadLocal.withInitial(() -> new int[1]);
+
+    public SqlTracer(MeterRegistry meterRegistry,
+                     @Value("${marketplace.sql.trace.enabled:true}") boolean enabled,
+                     @Value("${marketplace.sql.trace.slow-threshold:500ms}") Duration slowThreshold,
+                     @Value("${marketplace.sql.trace.sample-rate:0}") double sampleRate,
+                     @Value("${marketplace.sql.trace.max-statements:1000}") int maxStatements) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalStateException("marketplace.sql.trace.sample-rate must be between 0 and 1");
+        }
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.maxStatements = maxStatements;
+        this.normalized = Caffeine.newBuilder()
+                .maximumSize(maxStatements * 4L)
+                .build();
+        this.slowStatements = Counter.builder("marketplace.sql.statements.slow")
+                .description("SQL statements slower than marketplace.sql.trace.slow-threshold")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("marketplace.sql.statements.untracked", untracked, LongAdder::sum)
+                .description("Statements not aggregated because max-statements distinct statements are already tracked")
+                .register(registry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        startedAt.get()[0] = System.nanoTime();
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedNanos = System.nanoTime() - startedAt.get()[0];
+        count.get()[0]++;
+        // A batch shares one execution; it is recorded under its first statement
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        record(sql, elapsedNanos, execInfo.isBatch() ? execInfo.getBatchSize() : 0, execInfo.isSuccess());
+    }
+
+    void record(String sql, long elapsedNanos, int batchSize, boolean success) {
+        String statement = normalized.get(sql, SqlTracer::normalize);
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+
+        timers.computeIfAbsent(typeOf(statement), type -> Timer.builder("marketplace.sql.statement.duration")
+                        .description("Time to execute one JDBC statement or batch")
+                        .tag("type", type)
+                        .register(meterRegistry))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        StatementStats stats = statements.get(statement);
+        if (stats == null) {
+            if (statements.size() >= maxStatements) {
+                untracked.increment();
+            } else {
+                stats = statements.computeIfAbsent(statement, s -> new StatementStats());
+            }
+        }
+        if (stats != null) {
+            stats.record(elapsedNanos, slow, success);
+        }
+
+        if (slow) {
+            slowStatements.increment();
+        }
+        if (slow || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            logStatement(sql, elapsedNanos, batchSize, success, slow);
+        }
+    }
+
+    // Statements run by this thread since the last reset
+    public void reset() {
+        count.get()[0] = 0;
+    }
+
+    public int get() {
+        return count.get()[0];
+    }
+
+    // Slowest statements first, by "mean", "max" or "total" time
+    public List<SqlStatementSummary> top(int limit, String sort) {
+        Comparator<SqlStatementSummary> order = switch (sort) {
+            case "mean" -> Comparator.comparingDouble(SqlStatementSummary::getMeanMillis);
+            case "max" -> Comparator.comparingDouble(SqlStatementSummary::getMaxMillis);
+            case "total" -> Comparator.comparingDouble(SqlStatementSummary::getTotalMillis);
+            default -> throw new IllegalArgumentException("sort must be mean, max or total");
+        };
+        if (limit < 1) {
+            throw new IllegalArgumentException("top must be positive");
+        }
+        return statements.entrySet().stream()
+                .map(entry -> entry.getValue().summary(entry.getKey()))
+                .filter(summary -> summary.getCount() > 0)
+                .sorted(order.reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public void clear() {
+        statements.clear();
+    }
+
+    private static void logStatement(String sql, long elapsedNanos, int batchSize, boolean success, boolean slow) {
+        if (slow ? !log.isWarnEnabled() : !log.isInfoEnabled()) {
+            return;
+        }
+        String millis = String.format(Locale.ROOT, "%.1f", elapsedNanos / 1_000_000.0);
+        String batch = batchSize > 0 ? " batch=" + batchSize : "";
+        String failed = success ? "" : " failed";
+        if (slow) {
+            log.warn("slow {} ms{}{}: {}", millis, batch, failed, sql);
+        } else {
+            log.info("{} ms{}{}: {}", millis, batch, failed, sql);
+        }
+    }
+
+    static String normalize(String sql) {
+        String statement = STRING_LITERAL.matcher(sql).replaceAll("?");
+        statement = NUMBER_LITERAL.matcher(statement).replaceAll("?");
+        statement = IN_LIST.matcher(statement).replaceAll("in (...)");
+        return WHITESPACE.matcher(statement).replaceAll(" ").trim();
+    }
+
+    private static String typeOf(String statement) {
+        int end = statement.indexOf(' ');
+        String keyword = (end < 0 ? statement : statement.substring(0, end)).toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+            case "select", "with" -> "select";
+            case "insert", "update", "delete", "merge" -> keyword;
+            default -> "other";
+        };
+    }
+
+    private static final class StatementStats {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder slow = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+        void record(long elapsedNanos, boolean isSlow, boolean success) {
+            count.increment();
+            totalNanos.add(elapsedNanos);
+            if (elapsedNanos > maxNanos.get()) {
+                maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+            }
+            if (isSlow) {
+                slow.increment();
+            }
+            if (!success) {
+                failed.increment();
+            }
+        }
+
+        SqlStatementSummary summary(String statement) {
+            long n = count.sum();
+            double totalMillis = totalNanos.sum() / 1_000_000.0;
+            return new SqlStatementSummary(statement, n, totalMillis, n > 0 ? totalMillis / n : 0,
+                    maxNanos.get() / 1_000_000.0, slow.sum(), failed.sum());
+        }
+    }
+}
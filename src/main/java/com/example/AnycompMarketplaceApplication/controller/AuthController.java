@@ -0,0 +1,78 @@
+package com.example.AnycompMarketplaceApplication.controller;
+
+import com.example.AnycompMarketplaceApplication.dto.TokenResponse;
+import com.example.AnycompMarketplaceApplication.service.BuyerService;
+import com.example.AnycompMarketplaceApplication.service.SellerService;
+import com.example.AnycompMarketplaceApplication.service.TokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/auth")
+@Tag(name = "Authentication", description = "Bearer tokens for stateless access")
+public class AuthController {
+
+    private final TokenService tokenService;
+    private final BuyerService buyerService;
+    private final SellerService sellerService;
+
+    public AuthController(TokenService tokenService, BuyerService buyerService, SellerService sellerService) {
+        this.tokenService = tokenService;
+        this.buyerService = buyerService;
+        this.sellerService = sellerService;
+    }
+
+    @PostMapping("/token")
+    @Operation(
+            summary = "Issue a bearer token",
+            description = "Issues a signed token for a buyer (principal buyer:{id}), a seller (seller:{id}), "
+                    + "or, with neither, the calling operator"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Token issued",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = TokenResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Both buyerId and sellerId given", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Buyer or seller not found, or tokens are not configured", content = @Content)
+    })
+    public ResponseEntity<TokenResponse> issueToken(
+            @Parameter(description = "Buyer to issue the token for") @RequestParam(required = false) Long buyerId,
+            @Parameter(description = "Seller to issue the token for") @RequestParam(required = false) Long sellerId,
+            @Parameter(hidden = true) Authentication authentication) {
+        if (!tokenService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (buyerId != null && sellerId != null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (buyerId != null) {
+            return buyerService.existsById(buyerId)
+                    ? ResponseEntity.ok(tokenService.issue("buyer:" + buyerId, List.of("BUYER")))
+                    : ResponseEntity.notFound().build();
+        }
+        if (sellerId != null) {
+            return sellerService.existsById(sellerId)
+                    ? ResponseEntity.ok(tokenService.issue("seller:" + sellerId, List.of("SELLER")))
+                    : ResponseEntity.notFound().build();
+        }
+        List<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority.startsWith("ROLE_"))
+                .map(authority -> authority.substring("ROLE_".length()))
+                .toList();
+        return ResponseEntity.ok(tokenService.issue(authentication.getName(), roles));
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.AnycompMarketplaceApplication.controller;
 
+import com.example.AnycompMarketplaceApplication.dto.BuyerPurchase;
+import com.example.AnycompMarketplaceApplication.dto.BuyerResponseDTO;
+import com.example.AnycompMarketplaceApplication.dto.CursorPage;
 import com.example.AnycompMarketplaceApplication.entity.Buyer;
 import com.example.AnycompMarketplaceApplication.service.BuyerService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,6 +18,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 @RestController
@@ -30,38 +34,73 @@ public class BuyerController {
 
     @GetMapping
     @Operation(summary = "Get all buyers (paginated)", description = "Returns a paginated list of buyers")
-    public Page<Buyer> getAllBuyers(@Parameter(hidden = true) Pageable pageable) {
+    public Page<BuyerResponseDTO> getAllBuyers(@Parameter(hidden = true) Pageable pageable) {
         return buyerService.getAllBuyers(pageable);
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Get buyers by cursor", description = "Returns the next keyset page of buyers ordered by ID, without a total count")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of buyers with the cursor of the next page"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or size", content = @Content)
+    })
+    public ResponseEntity<CursorPage<BuyerResponseDTO>> getBuyersByCursor(
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size (1-1000, default 20)") @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(buyerService.getBuyersAfter(after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get buyer by ID", description = "Returns a single buyer by their ID")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Found the buyer", content = @Content(schema = @Schema(implementation = Buyer.class))),
+            @ApiResponse(responseCode = "200", description = "Found the buyer", content = @Content(schema = @Schema(implementation = BuyerResponseDTO.class))),
             @ApiResponse(responseCode = "404", description = "Buyer not found", content = @Content)
     })
-    public ResponseEntity<Buyer> getBuyerById(@PathVariable Long id) {
-        Optional<Buyer> buyer = buyerService.getBuyerById(id);
+    public ResponseEntity<BuyerResponseDTO> getBuyerById(@PathVariable Long id) {
+        Optional<BuyerResponseDTO> buyer = buyerService.getBuyerById(id);
         return buyer.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/purchases")
+    @Operation(summary = "Get purchase history of a buyer", description = "Returns the next keyset page of the buyer's purchases, newest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of purchases with the cursor of the next page"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or size", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Buyer not found", content = @Content)
+    })
+    public ResponseEntity<CursorPage<BuyerPurchase>> getBuyerPurchases(
+            @PathVariable Long id,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size (1-1000, default 20)") @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(buyerService.getPurchasesAfter(id, after, size));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping
     @Operation(summary = "Create a new buyer", description = "Adds a new buyer to the system")
-    @ApiResponse(responseCode = "200", description = "Buyer created", content = @Content(schema = @Schema(implementation = Buyer.class)))
-    public Buyer createBuyer(@RequestBody Buyer buyer) {
+    @ApiResponse(responseCode = "200", description = "Buyer created", content = @Content(schema = @Schema(implementation = BuyerResponseDTO.class)))
+    public BuyerResponseDTO createBuyer(@RequestBody Buyer buyer) {
         return buyerService.createBuyer(buyer);
     }
 
     @PutMapping("/{id}")
     @Operation(summary = "Update a buyer", description = "Updates an existing buyer's details")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Buyer updated", content = @Content(schema = @Schema(implementation = Buyer.class))),
+            @ApiResponse(responseCode = "200", description = "Buyer updated", content = @Content(schema = @Schema(implementation = BuyerResponseDTO.class))),
             @ApiResponse(responseCode = "404", description = "Buyer not found", content = @Content)
     })
-    public ResponseEntity<Buyer> updateBuyer(@PathVariable Long id, @RequestBody Buyer buyer) {
-        Optional<Buyer> existingBuyer = buyerService.getBuyerById(id);
-        if (existingBuyer.isPresent()) {
-            Buyer updatedBuyer = buyerService.updateBuyer(id, buyer);
+    public ResponseEntity<BuyerResponseDTO> updateBuyer(@PathVariable Long id, @RequestBody Buyer buyer) {
+        if (buyerService.existsById(id)) {
+            BuyerResponseDTO updatedBuyer = buyerService.updateBuyer(id, buyer);
             return ResponseEntity.ok(updatedBuyer);
         } else {
             return ResponseEntity.notFound().build();
@@ -75,8 +114,7 @@ public class BuyerController {
             @ApiResponse(responseCode = "404", description = "Buyer not found", content = @Content)
     })
     public ResponseEntity<Void> deleteBuyer(@PathVariable Long id) {
-        Optional<Buyer> existingBuyer = buyerService.getBuyerById(id);
-        if (existingBuyer.isPresent()) {
+        if (buyerService.existsById(id)) {
             buyerService.deleteBuyer(id);
             return ResponseEntity.noContent().build();
         } else {
@@ -1,7 +1,14 @@
 package com.example.AnycompMarketplaceApplication.controller;
 
+import com.example.AnycompMarketplaceApplication.dto.CursorPage;
+import com.example.AnycompMarketplaceApplication.dto.FileFormat;
+import com.example.AnycompMarketplaceApplication.dto.ItemImportResponse;
 import com.example.AnycompMarketplaceApplication.dto.ItemRequestDTO;
 import com.example.AnycompMarketplaceApplication.dto.ItemResponseDTO;
+import com.example.AnycompMarketplaceApplication.dto.ItemSearchResponse;
+import com.example.AnycompMarketplaceApplication.dto.SalesReport;
+import com.example.AnycompMarketplaceApplication.service.ItemImportService;
+import com.example.AnycompMarketplaceApplication.service.ItemSalesService;
 import com.example.AnycompMarketplaceApplication.service.ItemService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,20 +20,29 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.NoSuchElementException;
+
 @RestController
 @RequestMapping("/items")
 @Tag(name = "Item", description = "Item Management APIs")
 public class ItemController {
 
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
+    private final ItemSalesService itemSalesService;
 
     @Autowired
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService, ItemImportService itemImportService, ItemSalesService itemSalesService) {
         this.itemService = itemService;
+        this.itemImportService = itemImportService;
+        this.itemSalesService = itemSalesService;
     }
 
     @GetMapping
@@ -37,19 +53,83 @@ public class ItemController {
         return itemService.getAllItems(pageable);
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Get items by cursor", description = "Returns the next keyset page of items ordered by ID, without a total count")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of items with the cursor of the next page"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or size", content = @Content)
+    })
+    public ResponseEntity<CursorPage<ItemResponseDTO>> getItemsByCursor(
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size (1-1000, default 20)") @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(itemService.getItemsAfter(after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search items",
+            description = "Ranked full-text search over item name and description with price and seller filters, plus per-seller hit counts")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ranked page of matching items",
+                    content = @Content(schema = @Schema(implementation = ItemSearchResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid range, page or size", content = @Content)
+    })
+    public ResponseEntity<ItemSearchResponse> searchItems(
+            @Parameter(description = "Text query; supports +, |, -, \"phrases\" and prefix*") @RequestParam(required = false) String q,
+            @Parameter(description = "Minimum price (inclusive)") @RequestParam(required = false) Double minPrice,
+            @Parameter(description = "Maximum price (inclusive)") @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "Only items of this seller") @RequestParam(required = false) Long sellerId,
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (1-100)") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Number of seller facets to return (0-100)") @RequestParam(defaultValue = "10") int facets) {
+        try {
+            return ResponseEntity.ok(itemService.searchItems(q, minPrice, maxPrice, sellerId, page, size, facets));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
-    @Operation(summary = "Get item by ID", description = "Returns an item by its ID")
+    @Operation(summary = "Get item by ID", description = "Returns an item by its ID, with its version as ETag")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Item found", content = @Content(schema = @Schema(implementation = ItemResponseDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Item unchanged since the ETag in If-None-Match", content = @Content),
             @ApiResponse(responseCode = "404", description = "Item not found", content = @Content)
     })
     public ResponseEntity<ItemResponseDTO> getItemById(
             @Parameter(description = "ID of the item to retrieve") @PathVariable Long id) {
+        // The item usually comes from the cache; a matching If-None-Match gets a 304 without serializing it
         return itemService.getItemById(id)
-                .map(ResponseEntity::ok)
+                .map(item -> ResponseEntity.ok().eTag(etag(id, item.getVersion())).body(item))
                 .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
+    @GetMapping("/{id}/sales")
+    @Operation(summary = "Get item sales", description = "Returns units sold and revenue per item and day from the precomputed daily aggregates")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Daily sales with totals for the range",
+                    content = @Content(schema = @Schema(implementation = SalesReport.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid date range", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Item not found", content = @Content)
+    })
+    public ResponseEntity<SalesReport> getItemSales(
+            @PathVariable Long id,
+            @Parameter(description = "First day (ISO date, default 29 days before to)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day, inclusive (ISO date, default today)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(itemSalesService.getItemSales(id, from, to));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/sellers/{sellerId}")
     @Operation(summary = "Get items by seller ID", description = "Returns all items listed by a specific seller")
     @ApiResponse(responseCode = "200", description = "List of seller's items",
@@ -79,6 +159,28 @@ public class ItemController {
         }
     }
 
+    @PostMapping("/sellers/{sellerId}/import")
+    @Operation(summary = "Import items for a seller",
+            description = "Streams a catalog upload (NDJSON or CSV with a name,price[,description,quantity] header) and inserts valid rows in batches")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished, see counts and per-row errors",
+                    content = @Content(schema = @Schema(implementation = ItemImportResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Unsupported format or CSV header", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Seller not found", content = @Content)
+    })
+    public ResponseEntity<ItemImportResponse> importItems(
+            @Parameter(description = "ID of the seller") @PathVariable Long sellerId,
+            @Parameter(description = "ndjson (default) or csv") @RequestParam(defaultValue = "ndjson") String format,
+            InputStream body) {
+        try {
+            return ResponseEntity.ok(itemImportService.importItems(sellerId, FileFormat.parse(format), body));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update item", description = "Updates item information")
     @ApiResponse(responseCode = "200", description = "Item updated", content = @Content(schema = @Schema(implementation = ItemResponseDTO.class)))
@@ -100,4 +202,8 @@ public class ItemController {
         itemService.deleteItem(id);
         return ResponseEntity.noContent().build();
     }
+
+    private static String etag(Long id, long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
 }
@@ -0,0 +1,76 @@
+package com.example.AnycompMarketplaceApplication.controller;
+
+import com.example.AnycompMarketplaceApplication.dto.ItemResponseDTO;
+import com.example.AnycompMarketplaceApplication.service.ItemStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Reactive counterparts of GET /items and GET /items/sellers/{sellerId}. Spring MVC subscribes to the
+// Flux and releases the request thread; each item is written as one NDJSON line, one at a time, so a
+// slow client slows the database read instead of buffering the catalog in memory.
+@RestController
+@RequestMapping("/items")
+@Tag(name = "Item", description = "Item Management APIs")
+public class ItemStreamController {
+
+    private final ItemStreamService itemStreamService;
+
+    public ItemStreamController(ItemStreamService itemStreamService) {
+        this.itemStreamService = itemStreamService;
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream items", description = "Streams items ordered by ID as NDJSON, without paging or a total count")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Items, one per line",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = ItemResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit", content = @Content)
+    })
+    public ResponseEntity<Flux<ItemResponseDTO>> streamItems(
+            @Parameter(description = "Only items with a greater ID; pass the last ID received to resume") @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Maximum number of items (default 1000)") @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(itemStreamService.streamItems(afterId, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/sellers/{sellerId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream items by seller ID", description = "Streams a seller's items ordered by ID as NDJSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "The seller's items, one per line",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = ItemResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Seller not found", content = @Content)
+    })
+    public Mono<ResponseEntity<Flux<ItemResponseDTO>>> streamItemsBySeller(
+            @Parameter(description = "Seller ID to stream items for") @PathVariable Long sellerId,
+            @Parameter(description = "Only items with a greater ID; pass the last ID received to resume") @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Maximum number of items (default 1000)") @RequestParam(required = false) Integer limit) {
+        Mono<Flux<ItemResponseDTO>> items;
+        try {
+            items = itemStreamService.streamItemsBySeller(sellerId, afterId, limit);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        // The status is decided before the first item is written
+        return items.map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+}
@@ -1,9 +1,19 @@
 package com.example.AnycompMarketplaceApplication.controller;
 
+import com.example.AnycompMarketplaceApplication.config.RateLimitFilter;
+import com.example.AnycompMarketplaceApplication.config.SecurityConfig;
+import com.example.AnycompMarketplaceApplication.dto.CursorPage;
+import com.example.AnycompMarketplaceApplication.dto.FileFormat;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseBatchRequest;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseBatchResponse;
 import com.example.AnycompMarketplaceApplication.dto.PurchaseRequest;
 import com.example.AnycompMarketplaceApplication.dto.PurchaseResponse;
+import com.example.AnycompMarketplaceApplication.service.IdempotencyKeyMismatchException;
+import com.example.AnycompMarketplaceApplication.service.PurchaseExportService;
 import com.example.AnycompMarketplaceApplication.service.PurchaseService;
+import com.example.AnycompMarketplaceApplication.service.RateLimiter;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -11,8 +21,18 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/purchase")
@@ -20,9 +40,14 @@ import org.springframework.web.bind.annotation.*;
 public class PurchaseController {
 
     private final PurchaseService purchaseService;
+    private final PurchaseExportService purchaseExportService;
+    private final RateLimiter rateLimiter;
 
-    public PurchaseController(PurchaseService purchaseService) {
+    public PurchaseController(PurchaseService purchaseService, PurchaseExportService purchaseExportService,
+                              RateLimiter rateLimiter) {
         this.purchaseService = purchaseService;
+        this.purchaseExportService = purchaseExportService;
+        this.rateLimiter = rateLimiter;
     }
 
     @PostMapping
@@ -33,9 +58,15 @@ public class PurchaseController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Purchase created successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = PurchaseResponse.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid input or insufficient quantity", content = @Content)
+            @ApiResponse(responseCode = "400", description = "Invalid input or insufficient quantity", content = @Content),
+            @ApiResponse(responseCode = "403", description = "A buyer token purchasing for another buyer", content = @Content),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different request", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Too many purchases for this buyer, see Retry-After", content = @Content)
     })
     public ResponseEntity<PurchaseResponse> createPurchase(
+            @Parameter(description = "Client-generated key; retries with the same key return the original purchase")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Parameter(hidden = true) Authentication authentication,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Purchase request with buyerId, itemId, and quantity",
                     required = true,
@@ -43,13 +74,78 @@ public class PurchaseController {
             )
             @RequestBody PurchaseRequest purchaseRequest) {
 
+        if (!SecurityConfig.isAdminOrOwner(authentication, "buyer", purchaseRequest.getBuyerId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Duration wait = rateLimiter.tryAcquireForBuyer(purchaseRequest.getBuyerId(), 1);
+        if (!wait.isZero()) {
+            return tooManyRequests(wait);
+        }
         try {
             PurchaseResponse response = purchaseService.createPurchase(
                     purchaseRequest.getBuyerId(),
                     purchaseRequest.getItemId(),
-                    purchaseRequest.getQuantity()
+                    purchaseRequest.getQuantity(),
+                    authentication != null ? authentication.getName() : "",
+                    idempotencyKey
             );
             return ResponseEntity.ok(response);
+        } catch (IdempotencyKeyMismatchException e) {
+            return ResponseEntity.unprocessableEntity().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Create purchases in a batch",
+            description = "Executes several purchase lines in one transaction, either all-or-nothing (atomic) or per line"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see per-line results",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = PurchaseBatchResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized batch, or an atomic batch with a rejected line",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = PurchaseBatchResponse.class))),
+            @ApiResponse(responseCode = "403", description = "A buyer token purchasing for another buyer", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Too many purchases for a buyer in the batch, see Retry-After", content = @Content)
+    })
+    public ResponseEntity<PurchaseBatchResponse> createPurchases(
+            @Parameter(hidden = true) Authentication authentication,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Purchase lines and batch mode",
+                    required = true,
+                    content = @Content(schema = @Schema(implementation = PurchaseBatchRequest.class))
+            )
+            @RequestBody PurchaseBatchRequest batchRequest) {
+
+        // Each line counts against its buyer; buyers are charged in order until one is out of tokens
+        if (batchRequest.getLines() != null) {
+            Map<Long, Integer> linesPerBuyer = new LinkedHashMap<>();
+            for (PurchaseRequest line : batchRequest.getLines()) {
+                if (line != null) {
+                    linesPerBuyer.merge(line.getBuyerId(), 1, Integer::sum);
+                }
+            }
+            // A buyer token may only buy for its own buyer, on every line
+            for (Long buyerId : linesPerBuyer.keySet()) {
+                if (!SecurityConfig.isAdminOrOwner(authentication, "buyer", buyerId)) {
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+                }
+            }
+            for (Map.Entry<Long, Integer> buyer : linesPerBuyer.entrySet()) {
+                Duration wait = rateLimiter.tryAcquireForBuyer(buyer.getKey(), buyer.getValue());
+                if (!wait.isZero()) {
+                    return tooManyRequests(wait);
+                }
+            }
+        }
+        try {
+            PurchaseBatchResponse response = purchaseService.createPurchases(batchRequest.getLines(), batchRequest.isAtomic());
+            if (batchRequest.isAtomic() && response.getRejected() > 0) {
+                return ResponseEntity.badRequest().body(response);
+            }
+            return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(null);
         }
@@ -68,4 +164,60 @@ public class PurchaseController {
         Page<PurchaseResponse> purchases = purchaseService.getAllPurchases(pageable);
         return ResponseEntity.ok(purchases);
     }
+
+    @GetMapping("/cursor")
+    @Operation(
+            summary = "Get purchases by cursor",
+            description = "Returns the next keyset page of purchases, newest first, without a total count"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of purchases with the cursor of the next page"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or size", content = @Content)
+    })
+    public ResponseEntity<CursorPage<PurchaseResponse>> getPurchasesByCursor(
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size (1-1000, default 20)") @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(purchaseService.getPurchasesAfter(after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/export")
+    @Operation(
+            summary = "Export purchases",
+            description = "Streams every purchase in the date range, oldest first, as NDJSON or CSV"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Purchase rows, one per line",
+                    content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}),
+            @ApiResponse(responseCode = "400", description = "Invalid format or date range", content = @Content)
+    })
+    public ResponseEntity<StreamingResponseBody> exportPurchases(
+            @Parameter(description = "Inclusive lower bound on purchaseDate (ISO-8601 instant)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @Parameter(description = "Exclusive upper bound on purchaseDate (ISO-8601 instant)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @Parameter(description = "ndjson (default) or csv") @RequestParam(defaultValue = "ndjson") String format) {
+        FileFormat fileFormat;
+        try {
+            fileFormat = FileFormat.parse(format);
+            purchaseExportService.checkRange(from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> purchaseExportService.exportPurchases(from, to, fileFormat, out);
+        return ResponseEntity.ok()
+                .contentType(fileFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"purchases." + fileFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    private static <T> ResponseEntity<T> tooManyRequests(Duration wait) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, RateLimitFilter.retryAfterSeconds(wait))
+                .build();
+    }
 }
@@ -1,21 +1,31 @@
 package com.example.AnycompMarketplaceApplication.controller;
 
+import com.example.AnycompMarketplaceApplication.dto.CursorPage;
+import com.example.AnycompMarketplaceApplication.dto.SalesReport;
+import com.example.AnycompMarketplaceApplication.dto.SellerResponseDTO;
 import com.example.AnycompMarketplaceApplication.entity.Seller;
+import com.example.AnycompMarketplaceApplication.service.ItemSalesService;
 import com.example.AnycompMarketplaceApplication.service.SellerService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 
+import java.time.LocalDate;
+import java.util.NoSuchElementException;
 import java.util.Optional;  // Ensure this import is present
 
 @RestController
@@ -23,41 +33,118 @@ import java.util.Optional;  // Ensure this import is present
 @Tag(name = "Seller", description = "Seller Management APIs")
 public class SellerController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String EXPAND_DESCRIPTION =
+            "Set to items to embed each seller's first " + SellerService.MAX_EXPANDED_ITEMS + " items, fetched for the whole page in one query";
+
     private final SellerService sellerService;
+    private final ItemSalesService itemSalesService;
 
     @Autowired
-    public SellerController(SellerService sellerService) {
+    public SellerController(SellerService sellerService, ItemSalesService itemSalesService) {
         this.sellerService = sellerService;
+        this.itemSalesService = itemSalesService;
     }
 
     @GetMapping
     @Operation(summary = "Get all sellers with pagination", description = "Returns a paginated list of all sellers")
-    @ApiResponse(responseCode = "200", description = "List of sellers",
-            content = @Content(mediaType = "application/json", schema = @Schema(implementation = Seller.class)))
-    public Page<Seller> getAllSellers(@RequestParam(defaultValue = "0") int page,
-                                      @RequestParam(defaultValue = "10") int size) {
-        return sellerService.getAllSellers(PageRequest.of(page, size));
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "List of sellers",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = SellerResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid page, size or expand", content = @Content)
+    })
+    public ResponseEntity<Page<SellerResponseDTO>> getAllSellers(
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (1-1000)") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = EXPAND_DESCRIPTION) @RequestParam(required = false) String expand) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(sellerService.getAllSellers(PageRequest.of(page, size), expand));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/cursor")
+    @Operation(summary = "Get sellers by cursor", description = "Returns the next keyset page of sellers ordered by ID, without a total count")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of sellers with the cursor of the next page"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, size or expand", content = @Content)
+    })
+    public ResponseEntity<CursorPage<SellerResponseDTO>> getSellersByCursor(
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size (1-1000, default 20)") @RequestParam(required = false) Integer size,
+            @Parameter(description = EXPAND_DESCRIPTION) @RequestParam(required = false) String expand) {
+        try {
+            return ResponseEntity.ok(sellerService.getSellersAfter(after, size, expand));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get seller by ID", description = "Returns a seller based on ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Seller found",
-                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = Seller.class))),
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = SellerResponseDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Seller unchanged since the ETag in If-None-Match", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Invalid expand", content = @Content),
             @ApiResponse(responseCode = "404", description = "Seller not found", content = @Content)
     })
-    public ResponseEntity<Seller> getSellerById(@PathVariable Long id) {
-        Optional<Seller> seller = sellerService.getSellerById(id);
-        return seller.map(ResponseEntity::ok)
+    public ResponseEntity<SellerResponseDTO> getSellerById(
+            @PathVariable Long id,
+            @Parameter(description = EXPAND_DESCRIPTION) @RequestParam(required = false) String expand,
+            WebRequest request) {
+        // The version ETag only describes the seller itself; expanded responses get the page-level weak ETag
+        boolean versioned = expand == null;
+        if (versioned && request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = sellerService.getSellerVersion(id);
+            if (version.isPresent() && request.checkNotModified(etag(id, version.get()))) {
+                return null;
+            }
+        }
+
+        Optional<SellerResponseDTO> seller;
+        try {
+            seller = sellerService.getSellerById(id, expand);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return seller.map(dto -> versioned ? ResponseEntity.ok().eTag(etag(id, dto.getVersion())).body(dto) : ResponseEntity.ok(dto))
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
+    @GetMapping("/{id}/sales")
+    @Operation(summary = "Get seller sales", description = "Returns units sold and revenue per item and day from the precomputed daily aggregates")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Daily sales with totals for the range",
+                    content = @Content(schema = @Schema(implementation = SalesReport.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid date range", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Seller not found", content = @Content)
+    })
+    public ResponseEntity<SalesReport> getSellerSales(
+            @PathVariable Long id,
+            @Parameter(description = "First day (ISO date, default 29 days before to)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day, inclusive (ISO date, default today)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(itemSalesService.getSellerSales(id, from, to));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping
     @Operation(summary = "Create a new seller", description = "Creates a new seller entity")
     @ApiResponse(responseCode = "201", description = "Seller created",
-            content = @Content(mediaType = "application/json", schema = @Schema(implementation = Seller.class)))
-    public ResponseEntity<Seller> createSeller(@RequestBody Seller seller) {
-        Seller createdSeller = sellerService.createSeller(seller);
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = SellerResponseDTO.class)))
+    public ResponseEntity<SellerResponseDTO> createSeller(@RequestBody Seller seller) {
+        SellerResponseDTO createdSeller = sellerService.createSeller(seller);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdSeller);
     }
 
@@ -65,13 +152,12 @@ public class SellerController {
     @Operation(summary = "Update seller", description = "Updates a seller by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Seller updated",
-                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = Seller.class))),
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = SellerResponseDTO.class))),
             @ApiResponse(responseCode = "404", description = "Seller not found", content = @Content)
     })
-    public ResponseEntity<Seller> updateSeller(@PathVariable Long id, @RequestBody Seller seller) {
-        if (sellerService.getSellerById(id).isPresent()) {
-            seller.setId(id);
-            Seller updatedSeller = sellerService.updateSeller(id, seller);
+    public ResponseEntity<SellerResponseDTO> updateSeller(@PathVariable Long id, @RequestBody Seller seller) {
+        if (sellerService.existsById(id)) {
+            SellerResponseDTO updatedSeller = sellerService.updateSeller(id, seller);
             return ResponseEntity.ok(updatedSeller);
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -85,11 +171,15 @@ public class SellerController {
             @ApiResponse(responseCode = "404", description = "Seller not found", content = @Content)
     })
     public ResponseEntity<Void> deleteSeller(@PathVariable Long id) {
-        if (sellerService.getSellerById(id).isPresent()) {
+        if (sellerService.existsById(id)) {
             sellerService.deleteSeller(id);
             return ResponseEntity.noContent().build();
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
+
+    private static String etag(Long id, long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
 }
@@ -0,0 +1,20 @@
+package com.example.AnycompMarketplaceApplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+// One row of a buyer's purchase history; read with a JPQL constructor expression, never as entities
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuyerPurchase {
+    private Long purchaseId;
+    private Long itemId;
+    private String itemName;
+    private int quantity;
+    private Double unitPrice;
+    private Timestamp purchaseDate;
+}
@@ -0,0 +1,10 @@
+package com.example.AnycompMarketplaceApplication.dto;
+
+import lombok.Data;
+
+@Data
+public class BuyerResponseDTO {
+    private Long id;
+    private String name;
+    private String email;
+}
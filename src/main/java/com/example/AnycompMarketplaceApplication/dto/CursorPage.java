@@ -0,0 +1,27 @@
+package com.example.AnycompMarketplaceApplication.dto;
+
+import lombok.Data;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+// One keyset page: no total count, only an opaque cursor to pass as "after" for the next page
+@Data
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    public static <T> CursorPage<T> of(Slice<T> slice, Function<T, String> cursorOf) {
+        CursorPage<T> page = new CursorPage<>();
+        page.setContent(slice.getContent());
+        page.setSize(slice.getNumberOfElements());
+        page.setHasNext(slice.hasNext());
+        if (slice.hasNext()) {
+            page.setNextCursor(cursorOf.apply(slice.getContent().get(slice.getNumberOfElements() - 1)));
+        }
+        return page;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.AnycompMarketplaceApplication.dto;
+
+import lombok.Data;
+
+@Data
+public class ItemImportError {
+    private long line;
+    private String error;
+}
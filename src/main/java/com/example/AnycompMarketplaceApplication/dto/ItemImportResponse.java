@@ -0,0 +1,15 @@
+package com.example.AnycompMarketplaceApplication.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ItemImportResponse {
+    private long imported;
+    private long rejected;
+    private long durationMillis;
+    private double rowsPerSecond;
+    // Capped; rejected holds the full count
+    private List<ItemImportError> errors;
+}
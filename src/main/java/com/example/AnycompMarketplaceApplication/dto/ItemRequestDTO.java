@@ -6,4 +6,6 @@ import lombok.Data;
 public class ItemRequestDTO {
     private String name;
     private Double price;
+    private String description;
+    private Integer quantity;
 }
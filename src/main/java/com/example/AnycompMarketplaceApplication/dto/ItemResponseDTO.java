@@ -1,5 +1,6 @@
 package com.example.AnycompMarketplaceApplication.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 @Data
@@ -8,4 +9,7 @@ public class ItemResponseDTO {
     private String name;
     private Double price;
     private Long sellerId;
+    // Entity version, sent as the ETag rather than in the body
+    @JsonIgnore
+    private long version;
 }
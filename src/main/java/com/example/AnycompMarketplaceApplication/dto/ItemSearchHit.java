@@ -0,0 +1,12 @@
+package com.example.AnycompMarketplaceApplication.dto;
+
+import lombok.Data;
+
+@Data
+public class ItemSearchHit {
+    private Long id;
+    private String name;
+    private Double price;
+    private Long sellerId;
+    private float score;
+}
@@ -0,0 +1,15 @@
+package com.example.AnycompMarketplaceApplication.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ItemSearchResponse {
+    private long totalHits;
+    private int page;
+    private int size;
+    private List<ItemSearchHit> hits;
+    // Matching items per seller, ignoring the sellerId filter so clients can switch sellers
+    private List<SellerFacet> sellers;
+}
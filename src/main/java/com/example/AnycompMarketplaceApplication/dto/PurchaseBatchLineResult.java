@@ -0,0 +1,10 @@
+package com.example.AnycompMarketplaceApplication.dto;
+
+import lombok.Data;
+
+@Data
+public class PurchaseBatchLineResult {
+    private int line;
+    private PurchaseResponse purchase;
+    private String error;
+}
@@ -0,0 +1,12 @@
+package com.example.AnycompMarketplaceApplication.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PurchaseBatchRequest {
+    private List<PurchaseRequest> lines;
+    // true: all lines succeed or none do; false: each line is accepted or rejected on its own
+    private boolean atomic = true;
+}
@@ -0,0 +1,12 @@
+package com.example.AnycompMarketplaceApplication.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PurchaseBatchResponse {
+    private int accepted;
+    private int rejected;
+    private List<PurchaseBatchLineResult> results;
+}
@@ -0,0 +1,18 @@
+package com.example.AnycompMarketplaceApplication.dto;
+
+import lombok.Data;
+
+import java.sql.Timestamp;
+
+// Payload of a purchase.created outbox event; eventId is the outbox row id, for de-duplication downstream
+@Data
+public class PurchaseEvent {
+    private Long eventId;
+    private Long purchaseId;
+    private Long buyerId;
+    private Long itemId;
+    private Long sellerId;
+    private int quantity;
+    private double unitPrice;
+    private Timestamp purchaseDate;
+}
@@ -11,6 +11,21 @@ public class PurchaseResponse {
     private int quantity;
     private Timestamp purchaseDate;
 
+    public PurchaseResponse() {
+    }
+
+    // Used by JPQL constructor expressions to read purchases without loading entities
+    public PurchaseResponse(Long purchaseId, Long buyerId, String buyerName, Long itemId, String itemName,
+                            int quantity, Timestamp purchaseDate) {
+        this.purchaseId = purchaseId;
+        this.buyerId = buyerId;
+        this.buyerName = buyerName;
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.quantity = quantity;
+        this.purchaseDate = purchaseDate;
+    }
+
     // Getters and setters
     public Long getPurchaseId() {
         return purchaseId;
@@ -0,0 +1,19 @@
+package com.example.AnycompMarketplaceApplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Constructor is used by JPQL constructor expressions over item_sales_daily
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesDay {
+    private Long itemId;
+    private LocalDate date;
+    private long units;
+    private double revenue;
+    private long purchases;
+}
@@ -0,0 +1,18 @@
+package com.example.AnycompMarketplaceApplication.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class SalesReport {
+    // Inclusive day range
+    private LocalDate from;
+    private LocalDate to;
+    private long units;
+    private double revenue;
+    private long purchases;
+    // One entry per item and day with sales, ordered by day then item
+    private List<SalesDay> days;
+}
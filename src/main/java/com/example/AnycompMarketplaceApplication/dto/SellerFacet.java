@@ -0,0 +1,9 @@
+package com.example.AnycompMarketplaceApplication.dto;
+
+import lombok.Data;
+
+@Data
+public class SellerFacet {
+    private Long sellerId;
+    private long count;
+}
@@ -0,0 +1,21 @@
+package com.example.AnycompMarketplaceApplication.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SellerResponseDTO {
+    private Long id;
+    private String name;
+    private String email;
+    // Entity version, sent as the ETag rather than in the body
+    @JsonIgnore
+    private long version;
+    // Only with ?expand=items: the seller's first items by ID; hasMoreItems tells whether to page /items/sellers/{id}
+    private List<ItemResponseDTO> items;
+    private Boolean hasMoreItems;
+}
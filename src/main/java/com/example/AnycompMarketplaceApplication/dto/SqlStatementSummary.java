@@ -0,0 +1,19 @@
+package com.example.AnycompMarketplaceApplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One normalized SQL statement and its execution times since startup (or the last reset)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SqlStatementSummary {
+    private String statement;
+    private long count;
+    private double totalMillis;
+    private double meanMillis;
+    private double maxMillis;
+    private long slowCount;
+    private long failedCount;
+}
@@ -1,11 +1,17 @@
 package com.example.AnycompMarketplaceApplication.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.List;
 
+// Looked up on every purchase; regions are configured in application.conf
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "buyer")
 public class Buyer {
 
     @Id
@@ -15,6 +21,8 @@ public class Buyer {
     private String name;
     private String email;
 
+    // Unbounded; never serialized, use GET /buyers/{id}/purchases instead
+    @JsonIgnore
     @OneToMany(mappedBy = "buyer")
     private List<Purchase> purchasedItems;
 
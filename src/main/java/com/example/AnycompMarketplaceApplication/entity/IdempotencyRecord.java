@@ -0,0 +1,70 @@
+package com.example.AnycompMarketplaceApplication.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.sql.Timestamp;
+
+// Outcome of a POST /purchase sent with an Idempotency-Key, keyed by "<principal>:<key>"
+@Entity
+@Table(indexes = @Index(name = "idx_idempotency_record_created_at", columnList = "createdAt"))
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(length = 512)
+    private String id;
+
+    // buyerId:itemId:quantity of the original request; a replay with other values is rejected
+    @Column(nullable = false)
+    private String requestFingerprint;
+
+    private Long purchaseId;
+
+    @Column(nullable = false)
+    private Timestamp createdAt;
+
+    // Always inserted, never merged: a concurrent duplicate must fail on the primary key
+    @Transient
+    private boolean isNew = true;
+
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String id, String requestFingerprint) {
+        this.id = id;
+        this.requestFingerprint = requestFingerprint;
+        this.createdAt = new Timestamp(System.currentTimeMillis());
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    public String getRequestFingerprint() {
+        return requestFingerprint;
+    }
+
+    public Long getPurchaseId() {
+        return purchaseId;
+    }
+
+    public void setPurchaseId(Long purchaseId) {
+        this.purchaseId = purchaseId;
+    }
+
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -1,8 +1,19 @@
 package com.example.AnycompMarketplaceApplication.entity;
 
 import jakarta.persistence.*;
-
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OptimisticLock;
+
+// Stock is written by native updates outside this region (ItemRepository.STOCK_QUERY_SPACE), so a loaded
+// quantity may be old: stock is read with findQuantityById or under a row lock. Other columns are edited on
+// the managed entity inside a transaction (never by merging a detached copy), and @DynamicUpdate then keeps
+// the loaded quantity out of the UPDATE
 @Entity
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item")
 public class Item {
 
     @Id
@@ -12,11 +23,27 @@ public class Item {
     private String name;
     private String description;
     private double price;
+
+    // Stock moves on every purchase and is not part of the API representation, so it does not bump the version
+    @OptimisticLock(excluded = true)
     private int quantity;
 
+    // Source of the ETag on GET /items/{id}; the default covers rows inserted outside JPA (bulk import)
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private long version;
+
     @ManyToOne
     private Seller seller;
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Long getId() {
         return id;
     }
@@ -0,0 +1,10 @@
+package com.example.AnycompMarketplaceApplication.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+// Read-only R2DBC view of the item table for the streaming catalog reads; Item stays the JPA entity
+@Table("item")
+public record ItemRow(@Id Long id, String name, double price, @Column("seller_id") Long sellerId) {
+}
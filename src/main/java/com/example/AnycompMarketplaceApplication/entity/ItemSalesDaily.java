@@ -0,0 +1,97 @@
+package com.example.AnycompMarketplaceApplication.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Units sold and revenue of one item on one day, maintained as purchases are applied to stock
+@Entity
+@IdClass(ItemSalesDaily.Key.class)
+@Table(indexes = @Index(name = "idx_item_sales_daily_seller_date", columnList = "sellerId, salesDate"))
+public class ItemSalesDaily {
+
+    @Id
+    private Long itemId;
+
+    @Id
+    private LocalDate salesDate;
+
+    private Long sellerId;
+
+    private long units;
+    private double revenue;
+    private long purchases;
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+
+    public void setSalesDate(LocalDate salesDate) {
+        this.salesDate = salesDate;
+    }
+
+    public Long getSellerId() {
+        return sellerId;
+    }
+
+    public void setSellerId(Long sellerId) {
+        this.sellerId = sellerId;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public void setUnits(long units) {
+        this.units = units;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+
+    public long getPurchases() {
+        return purchases;
+    }
+
+    public void setPurchases(long purchases) {
+        this.purchases = purchases;
+    }
+
+    public static class Key implements Serializable {
+        private Long itemId;
+        private LocalDate salesDate;
+
+        public Key() {
+        }
+
+        public Key(Long itemId, LocalDate salesDate) {
+            this.itemId = itemId;
+            this.salesDate = salesDate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(itemId, key.itemId) && Objects.equals(salesDate, key.salesDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(itemId, salesDate);
+        }
+    }
+}
@@ -4,10 +4,17 @@ import jakarta.persistence.*;
 import java.sql.Timestamp;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_purchase_date_id", columnList = "purchaseDate, id"),
+        // Purchase history of one buyer, newest first (scanned backwards)
+        @Index(name = "idx_purchase_buyer_date_id", columnList = "buyer_id, purchaseDate, id")
+})
 public class Purchase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence instead of IDENTITY so Hibernate can batch purchase inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchase_seq")
+    @SequenceGenerator(name = "purchase_seq", sequenceName = "purchase_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -19,6 +26,13 @@ public class Purchase {
     private int quantity;
     private Timestamp purchaseDate;
 
+    // Price per unit when the purchase was made; null on purchases recorded before it was captured
+    private Double unitPrice;
+
+    // True while the quantity is reserved in the in-memory inventory ledger but not yet applied to Item.quantity
+    @Column(columnDefinition = "boolean default false not null")
+    private boolean stockPending;
+
     public Long getId() {
         return id;
     }
@@ -59,5 +73,21 @@ public class Purchase {
         this.purchaseDate = purchaseDate;
     }
 
+    public Double getUnitPrice() {
+        return unitPrice;
+    }
+
+    public void setUnitPrice(Double unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+
+    public boolean isStockPending() {
+        return stockPending;
+    }
+
+    public void setStockPending(boolean stockPending) {
+        this.stockPending = stockPending;
+    }
+
     // Getters and Setters
 }
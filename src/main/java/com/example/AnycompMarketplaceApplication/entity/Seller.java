@@ -1,9 +1,15 @@
 package com.example.AnycompMarketplaceApplication.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
 
+// Looked up on every item write; regions are configured in application.conf
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "seller")
 public class Seller {
 
     @Id
@@ -13,9 +19,25 @@ public class Seller {
     private String name;
     private String email;
 
+    // Source of the ETag on GET /sellers/{id}
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private long version;
+
+    // Unbounded; never serialized, use ?expand=items or GET /items/sellers/{id} instead
+    @JsonIgnore
     @OneToMany(mappedBy = "seller")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "seller-items")
     private List<Item> items;
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Long getId() {
         return id;
     }
@@ -0,0 +1,9 @@
+package com.example.AnycompMarketplaceApplication.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+// Read-only R2DBC view of the seller table for the streaming catalog reads; Seller stays the JPA entity
+@Table("seller")
+public record SellerRow(@Id Long id, String name) {
+}
@@ -3,8 +3,101 @@ package com.example.AnycompMarketplaceApplication.repository;
 import com.example.AnycompMarketplaceApplication.entity.Item;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+
+    String SELLER_PAGES_CACHE_REGION = "item-pages-by-seller";
+
+    // Query space of the native stock updates. Nothing cached reads it, so a purchase clears neither
+    // the item region nor the cached seller pages; see Item for why a cached quantity is never trusted.
+    String STOCK_QUERY_SPACE = "item_stock";
+
+    // Page ids and the count come from the query cache, the items themselves from the item region
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SELLER_PAGES_CACHE_REGION)
+    })
     Page<Item> findBySellerId(Long sellerId, Pageable pageable);
+
+    // Keyset page: seeks on the primary key and returns a Slice, so no count query runs
+    @Query("select i from Item i join fetch i.seller where i.id > :afterId order by i.id")
+    Slice<Item> findSliceAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Seller-scoped keyset page, used to index a seller's newly imported items
+    @Query("select i from Item i join fetch i.seller where i.seller.id = :sellerId and i.id > :afterId order by i.id")
+    Slice<Item> findSliceBySellerIdAfter(@Param("sellerId") Long sellerId, @Param("afterId") Long afterId, Pageable pageable);
+
+    // Owner check for seller tokens, see SecurityConfig
+    @Query("select i.seller.id from Item i where i.id = :id")
+    Optional<Long> findSellerIdById(@Param("id") Long id);
+
+    @Query("select coalesce(max(i.id), 0) from Item i where i.seller.id = :sellerId")
+    long findMaxIdBySellerId(@Param("sellerId") Long sellerId);
+
+    // Columns needed for ItemResponseDTO, read without loading entities
+    interface SellerItem {
+        Long getId();
+
+        String getName();
+
+        Double getPrice();
+
+        Long getSellerId();
+    }
+
+    // First :limit items of each seller by ID, for a whole page of sellers in one windowed query
+    @Query(value = "select t.id as id, t.name as name, t.price as price, t.seller_id as sellerId from ("
+            + "select i.id, i.name, i.price, i.seller_id, row_number() over (partition by i.seller_id order by i.id) as rn "
+            + "from item i where i.seller_id in (:sellerIds)) t "
+            + "where t.rn <= :limit order by t.seller_id, t.id",
+            nativeQuery = true)
+    List<SellerItem> findFirstItemsBySellerIdIn(@Param("sellerIds") Collection<Long> sellerIds, @Param("limit") int limit);
+
+    @Query("select coalesce(max(i.id), 0) from Item i")
+    long findMaxId();
+
+    // Row-locks a contiguous id range, in id order like findAllForUpdateByIdIn
+    @Query(value = "select id from item where id between :fromId and :toId order by id for update", nativeQuery = true)
+    List<Long> lockIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Conditional decrement: the row lock taken by the UPDATE serializes concurrent buyers,
+    // so stock can never go negative. Returns 0 when the item is missing or has too little stock.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = STOCK_QUERY_SPACE))
+    @Query(value = "update item set quantity = quantity - :quantity where id = :id and quantity >= :quantity", nativeQuery = true)
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Unconditional decrement used by the inventory ledger to write back stock it has already reserved
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = STOCK_QUERY_SPACE))
+    @Query(value = "update item set quantity = quantity - :quantity where id = :id", nativeQuery = true)
+    int applyStockDelta(@Param("id") Long id, @Param("quantity") long quantity);
+
+    // Writes back stock the caller computed under findAllForUpdateByIdIn's row lock
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = STOCK_QUERY_SPACE))
+    @Query(value = "update item set quantity = :quantity where id = :id", nativeQuery = true)
+    int setStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Locks in id order so concurrent batches touching the same items cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in :ids order by i.id")
+    List<Item> findAllForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select i.quantity from Item i where i.id = :id")
+    Optional<Integer> findQuantityById(@Param("id") Long id);
 }
@@ -0,0 +1,19 @@
+package com.example.AnycompMarketplaceApplication.repository;
+
+import com.example.AnycompMarketplaceApplication.entity.ItemRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+
+// Reactive reads over R2DBC; rows are emitted as the subscriber requests them
+public interface ItemRowRepository extends R2dbcRepository<ItemRow, Long> {
+
+    // Keyset stream: seeks on the primary key, so resuming after the last id received costs nothing extra
+    @Query("select id, name, price, seller_id from item where id > :afterId order by id limit :limit")
+    Flux<ItemRow> findAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    @Query("select id, name, price, seller_id from item where seller_id = :sellerId and id > :afterId order by id limit :limit")
+    Flux<ItemRow> findBySellerIdAfter(@Param("sellerId") long sellerId, @Param("afterId") long afterId,
+                                      @Param("limit") int limit);
+}
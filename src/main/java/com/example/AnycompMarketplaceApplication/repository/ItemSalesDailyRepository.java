@@ -0,0 +1,60 @@
+package com.example.AnycompMarketplaceApplication.repository;
+
+import com.example.AnycompMarketplaceApplication.dto.SalesDay;
+import com.example.AnycompMarketplaceApplication.entity.ItemSalesDaily;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Writers must hold the item's row lock, which makes update-then-insert safe without an upsert.
+// Native inserts name the table they write; otherwise Hibernate clears every second-level cache region.
+public interface ItemSalesDailyRepository extends JpaRepository<ItemSalesDaily, ItemSalesDaily.Key> {
+
+    @Modifying
+    @Query("update ItemSalesDaily s set s.units = s.units + :units, s.revenue = s.revenue + :revenue, "
+            + "s.purchases = s.purchases + :purchases where s.itemId = :itemId and s.salesDate = :salesDate")
+    int addSales(@Param("itemId") Long itemId, @Param("salesDate") LocalDate salesDate,
+                 @Param("units") long units, @Param("revenue") double revenue, @Param("purchases") long purchases);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "item_sales_daily"))
+    @Query(value = "insert into item_sales_daily (item_id, sales_date, seller_id, units, revenue, purchases) "
+            + "select i.id, :salesDate, i.seller_id, :units, :revenue, :purchases from item i where i.id = :itemId",
+            nativeQuery = true)
+    int insertSales(@Param("itemId") Long itemId, @Param("salesDate") LocalDate salesDate,
+                    @Param("units") long units, @Param("revenue") double revenue, @Param("purchases") long purchases);
+
+    @Query("select new com.example.AnycompMarketplaceApplication.dto.SalesDay(s.itemId, s.salesDate, s.units, s.revenue, s.purchases) "
+            + "from ItemSalesDaily s where s.itemId = :itemId and s.salesDate between :from and :to "
+            + "order by s.salesDate")
+    List<SalesDay> findItemSales(@Param("itemId") Long itemId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Served by idx_item_sales_daily_seller_date
+    @Query("select new com.example.AnycompMarketplaceApplication.dto.SalesDay(s.itemId, s.salesDate, s.units, s.revenue, s.purchases) "
+            + "from ItemSalesDaily s where s.sellerId = :sellerId and s.salesDate between :from and :to "
+            + "order by s.salesDate, s.itemId")
+    List<SalesDay> findSellerSales(@Param("sellerId") Long sellerId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("delete from ItemSalesDaily s where s.itemId between :fromId and :toId")
+    int deleteByItemIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Stock still pending in the inventory ledger is left out; the ledger flush adds it when applied
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "item_sales_daily"))
+    @Query(value = "insert into item_sales_daily (item_id, sales_date, seller_id, units, revenue, purchases) "
+            + "select p.item_id, cast(p.purchase_date as date), i.seller_id, sum(p.quantity), "
+            + "sum(p.quantity * coalesce(p.unit_price, i.price)), count(*) "
+            + "from purchase p join item i on i.id = p.item_id "
+            + "where p.item_id between :fromId and :toId and p.stock_pending = false "
+            + "group by p.item_id, cast(p.purchase_date as date), i.seller_id",
+            nativeQuery = true)
+    int insertFromPurchases(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
@@ -0,0 +1,50 @@
+package com.example.AnycompMarketplaceApplication.repository;
+
+import com.example.AnycompMarketplaceApplication.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest due events; SKIP LOCKED lets several dispatchers drain disjoint batches
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where e.nextAttemptAt <= :now order by e.id")
+    List<OutboxEvent> findDueForUpdate(@Param("now") Timestamp now, Pageable pageable);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt where e.id in :ids")
+    int scheduleRetry(@Param("ids") Collection<Long> ids, @Param("nextAttemptAt") Timestamp nextAttemptAt);
+
+    // Copies events to outbox_dead_letter, counting the attempt that just failed; delete them afterwards
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "outbox_dead_letter"))
+    @Query(value = "insert into outbox_dead_letter (id, event_type, payload, created_at, attempts, failed_at, last_error) "
+            + "select id, event_type, payload, created_at, attempts + 1, :failedAt, :lastError from outbox_event where id in :ids",
+            nativeQuery = true)
+    int copyToDeadLetter(@Param("ids") Collection<Long> ids, @Param("failedAt") Timestamp failedAt,
+                         @Param("lastError") String lastError);
+
+    @Query(value = "select count(*) from outbox_dead_letter", nativeQuery = true)
+    long countDeadLetters();
+
+    @Query("select min(e.createdAt) from OutboxEvent e")
+    Optional<Timestamp> findOldestCreatedAt();
+}
@@ -1,7 +1,109 @@
 package com.example.AnycompMarketplaceApplication.repository;
 
+import com.example.AnycompMarketplaceApplication.dto.BuyerPurchase;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseResponse;
 import com.example.AnycompMarketplaceApplication.entity.Purchase;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
+
+    // Single joined query per page: no entities are loaded, so buyer and item cannot fan out into extra selects
+    @Query(value = "select new com.example.AnycompMarketplaceApplication.dto.PurchaseResponse("
+            + "p.id, b.id, b.name, i.id, i.name, p.quantity, p.purchaseDate) "
+            + "from Purchase p join p.buyer b join p.item i",
+            countQuery = "select count(p) from Purchase p")
+    Page<PurchaseResponse> findAllResponses(Pageable pageable);
+
+    @Query("select new com.example.AnycompMarketplaceApplication.dto.PurchaseResponse("
+            + "p.id, b.id, b.name, i.id, i.name, p.quantity, p.purchaseDate) "
+            + "from Purchase p join p.buyer b join p.item i where p.id = :id")
+    Optional<PurchaseResponse> findResponseById(@Param("id") Long id);
+
+    // Keyset pages, newest first, seeking on (purchaseDate, id) via idx_purchase_date_id
+    @Query("select new com.example.AnycompMarketplaceApplication.dto.PurchaseResponse("
+            + "p.id, b.id, b.name, i.id, i.name, p.quantity, p.purchaseDate) "
+            + "from Purchase p join p.buyer b join p.item i "
+            + "order by p.purchaseDate desc, p.id desc")
+    Slice<PurchaseResponse> findFirstResponses(Pageable pageable);
+
+    @Query("select new com.example.AnycompMarketplaceApplication.dto.PurchaseResponse("
+            + "p.id, b.id, b.name, i.id, i.name, p.quantity, p.purchaseDate) "
+            + "from Purchase p join p.buyer b join p.item i "
+            + "where (p.purchaseDate, p.id) < (:afterDate, :afterId) "
+            + "order by p.purchaseDate desc, p.id desc")
+    Slice<PurchaseResponse> findResponsesAfter(@Param("afterDate") Timestamp afterDate,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+
+    // Keyset pages of one buyer's history via idx_purchase_buyer_date_id; only the item is joined
+    @Query("select new com.example.AnycompMarketplaceApplication.dto.BuyerPurchase("
+            + "p.id, i.id, i.name, p.quantity, p.unitPrice, p.purchaseDate) "
+            + "from Purchase p join p.item i where p.buyer.id = :buyerId "
+            + "order by p.purchaseDate desc, p.id desc")
+    Slice<BuyerPurchase> findFirstByBuyer(@Param("buyerId") Long buyerId, Pageable pageable);
+
+    @Query("select new com.example.AnycompMarketplaceApplication.dto.BuyerPurchase("
+            + "p.id, i.id, i.name, p.quantity, p.unitPrice, p.purchaseDate) "
+            + "from Purchase p join p.item i where p.buyer.id = :buyerId "
+            + "and (p.purchaseDate, p.id) < (:afterDate, :afterId) "
+            + "order by p.purchaseDate desc, p.id desc")
+    Slice<BuyerPurchase> findByBuyerAfter(@Param("buyerId") Long buyerId,
+                                          @Param("afterDate") Timestamp afterDate,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+
+    // Forward-only cursor for exports: rows are fetched in chunks and never enter the persistence context
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select new com.example.AnycompMarketplaceApplication.dto.PurchaseResponse("
+            + "p.id, b.id, b.name, i.id, i.name, p.quantity, p.purchaseDate) "
+            + "from Purchase p join p.buyer b join p.item i "
+            + "where p.purchaseDate >= :from and p.purchaseDate < :to "
+            + "order by p.purchaseDate, p.id")
+    Stream<PurchaseResponse> streamResponses(@Param("from") Timestamp from, @Param("to") Timestamp to);
+
+    // Purchases whose stock was reserved by the inventory ledger but not yet written back to Item.quantity
+    interface PendingStock {
+        Long getId();
+
+        int getQuantity();
+
+        double getUnitPrice();
+
+        Timestamp getPurchaseDate();
+    }
+
+    @Query("select p.id as id, p.quantity as quantity, coalesce(p.unitPrice, i.price) as unitPrice, p.purchaseDate as purchaseDate "
+            + "from Purchase p join p.item i where i.id = :itemId and p.stockPending = true")
+    List<PendingStock> findPendingStockByItemId(@Param("itemId") Long itemId);
+
+    @Query("select coalesce(sum(p.quantity), 0) from Purchase p where p.item.id = :itemId and p.stockPending = true")
+    long sumPendingStock(@Param("itemId") Long itemId);
+
+    boolean existsByStockPendingFalse();
+
+    @Query("select distinct p.item.id from Purchase p where p.stockPending = true")
+    List<Long> findItemIdsWithPendingStock();
+
+    @Modifying
+    @Query("update Purchase p set p.stockPending = false where p.id in :ids")
+    int markStockApplied(@Param("ids") Collection<Long> ids);
 }
@@ -1,7 +1,17 @@
 package com.example.AnycompMarketplaceApplication.repository;
 
 import com.example.AnycompMarketplaceApplication.entity.Seller;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
 
 public interface SellerRepository extends JpaRepository<Seller, Long> {
+    Slice<Seller> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);  // Keyset page, no count query
+
+    @Query("select s.version from Seller s where s.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 }
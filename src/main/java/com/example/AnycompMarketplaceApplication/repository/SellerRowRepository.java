@@ -0,0 +1,7 @@
+package com.example.AnycompMarketplaceApplication.repository;
+
+import com.example.AnycompMarketplaceApplication.entity.SellerRow;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+
+public interface SellerRowRepository extends R2dbcRepository<SellerRow, Long> {
+}
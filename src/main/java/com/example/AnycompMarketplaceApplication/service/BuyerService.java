@@ -1,37 +1,90 @@
 package com.example.AnycompMarketplaceApplication.service;
 
+import com.example.AnycompMarketplaceApplication.dto.BuyerPurchase;
+import com.example.AnycompMarketplaceApplication.dto.BuyerResponseDTO;
+import com.example.AnycompMarketplaceApplication.dto.CursorPage;
 import com.example.AnycompMarketplaceApplication.entity.Buyer;
 import com.example.AnycompMarketplaceApplication.repository.BuyerRepository;
+import com.example.AnycompMarketplaceApplication.repository.PurchaseRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 @Service
+@Timed("marketplace.service")
 public class BuyerService {
 
     private final BuyerRepository buyerRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final TransactionTemplate replicaReads;
 
-    public BuyerService(BuyerRepository buyerRepository) {
+    public BuyerService(BuyerRepository buyerRepository, PurchaseRepository purchaseRepository,
+                        PlatformTransactionManager transactionManager) {
         this.buyerRepository = buyerRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.replicaReads = ReplicaReads.transactionTemplate(transactionManager);
     }
 
-    public Page<Buyer> getAllBuyers(Pageable pageable) {
-        return buyerRepository.findAll(pageable);
+    // Convert Entity to DTO
+    private BuyerResponseDTO convertToDTO(Buyer buyer) {
+        BuyerResponseDTO dto = new BuyerResponseDTO();
+        dto.setId(buyer.getId());
+        dto.setName(buyer.getName());
+        dto.setEmail(buyer.getEmail());
+        return dto;
     }
 
-    public Optional<Buyer> getBuyerById(Long id) {
-        return buyerRepository.findById(id);
+    public Page<BuyerResponseDTO> getAllBuyers(Pageable pageable) {
+        return replicaReads.execute(status -> buyerRepository.findAll(pageable).map(this::convertToDTO));
     }
 
-    public Buyer createBuyer(Buyer buyer) {
-        return buyerRepository.save(buyer);
+    public CursorPage<BuyerResponseDTO> getBuyersAfter(String after, Integer size) {
+        Long afterId = after == null ? Long.MIN_VALUE : KeysetCursor.decodeId(after);
+        Pageable limit = KeysetCursor.limit(size);
+        return replicaReads.execute(status -> CursorPage.of(
+                buyerRepository.findByIdGreaterThanOrderByIdAsc(afterId, limit).map(this::convertToDTO),
+                buyer -> KeysetCursor.encodeId(buyer.getId())));
     }
 
-    public Buyer updateBuyer(Long id, Buyer buyer) {
+    // Keyset pages of the buyer's purchases, newest first; the buyer is only looked up when the first page is empty
+    public CursorPage<BuyerPurchase> getPurchasesAfter(Long buyerId, String after, Integer size) {
+        Pageable limit = KeysetCursor.limit(size);
+        KeysetCursor.DateAndId cursor = after == null ? null : KeysetCursor.decodeDateAndId(after);
+        Slice<BuyerPurchase> slice = replicaReads.execute(status -> {
+            if (cursor == null) {
+                Slice<BuyerPurchase> first = purchaseRepository.findFirstByBuyer(buyerId, limit);
+                if (!first.hasContent() && !buyerRepository.existsById(buyerId)) {
+                    throw new NoSuchElementException("Buyer not found with ID: " + buyerId);
+                }
+                return first;
+            }
+            return purchaseRepository.findByBuyerAfter(buyerId, cursor.date(), cursor.id(), limit);
+        });
+        return CursorPage.of(slice, purchase -> KeysetCursor.encodeDateAndId(purchase.getPurchaseDate(), purchase.getPurchaseId()));
+    }
+
+    public Optional<BuyerResponseDTO> getBuyerById(Long id) {
+        return replicaReads.execute(status -> buyerRepository.findById(id).map(this::convertToDTO));
+    }
+
+    public boolean existsById(Long id) {
+        return buyerRepository.existsById(id);
+    }
+
+    public BuyerResponseDTO createBuyer(Buyer buyer) {
+        return convertToDTO(buyerRepository.save(buyer));
+    }
+
+    public BuyerResponseDTO updateBuyer(Long id, Buyer buyer) {
         buyer.setId(id);
-        return buyerRepository.save(buyer);
+        return convertToDTO(buyerRepository.save(buyer));
     }
 
     public void deleteBuyer(Long id) {
@@ -0,0 +1,60 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.dto.PurchaseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Appends events as NDJSON and forces each batch to disk before the outbox rows are deleted
+@Component
+@ConditionalOnProperty(name = "marketplace.outbox.sinks.file.enabled", havingValue = "true")
+public class FilePurchaseEventSink implements PurchaseEventSink {
+
+    private final ObjectWriter lineWriter;
+    private final FileChannel channel;
+
+    public FilePurchaseEventSink(ObjectMapper objectMapper,
+                                 @Value("${marketplace.outbox.sinks.file.path:purchase-events.ndjson}") Path path) throws IOException {
+        this.lineWriter = objectMapper.writerFor(PurchaseEvent.class);
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public void publish(List<PurchaseEvent> events) throws IOException {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream(events.size() * 256);
+        for (PurchaseEvent event : events) {
+            lineWriter.writeValue(batch, event);
+            batch.write('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        channel.close();
+    }
+}
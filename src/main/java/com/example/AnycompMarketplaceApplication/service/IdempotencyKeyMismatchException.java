@@ -0,0 +1,9 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+// An Idempotency-Key was reused with a different request body
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
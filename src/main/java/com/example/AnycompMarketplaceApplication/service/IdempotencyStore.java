@@ -0,0 +1,144 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.dto.PurchaseResponse;
+import com.example.AnycompMarketplaceApplication.entity.IdempotencyRecord;
+import com.example.AnycompMarketplaceApplication.repository.IdempotencyRecordRepository;
+import com.example.AnycompMarketplaceApplication.repository.PurchaseRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Exactly-once execution of purchases sent with an {@code Idempotency-Key}.
+ *
+ * <p>Outcomes are kept in a bounded in-memory map with a TTL, backed by {@code idempotency_record}.
+ * The record is inserted in the purchase's own transaction, before any stock is touched, so a
+ * duplicate racing on another node blocks on the primary key and then replays the committed
+ * outcome. Within one node, concurrent duplicates wait for the in-flight request instead of
+ * reaching the database. Failed requests are not remembered and may be retried with the same key.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Cache<String, CompletableFuture<Outcome>> outcomes;
+    private final MeterRegistry meterRegistry;
+
+    public IdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                            PurchaseRepository purchaseRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${marketplace.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${marketplace.idempotency.max-size:100000}") long maxSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.outcomes = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs {@code purchase} once per {@code owner} and {@code key}. The purchase receives the record
+     * to insert in its transaction; replays return the original response, and a replay whose
+     * fingerprint differs from the original request fails with {@link IdempotencyKeyMismatchException}.
+     */
+    public PurchaseResponse execute(String owner, String key, String fingerprint,
+                                    Function<IdempotencyRecord, PurchaseResponse> purchase) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        String recordId = owner + ":" + key;
+
+        CompletableFuture<Outcome> created = new CompletableFuture<>();
+        CompletableFuture<Outcome> future = outcomes.get(recordId, id -> created);
+        if (future == created) {
+            try {
+                created.complete(load(recordId).orElseGet(() -> run(recordId, fingerprint, purchase)));
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+                outcomes.asMap().remove(recordId, created);
+                throw e;
+            }
+        }
+
+        Outcome outcome;
+        try {
+            outcome = future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        if (!outcome.fingerprint().equals(fingerprint)) {
+            count("mismatch");
+            throw new IdempotencyKeyMismatchException("Idempotency-Key was already used for a different request");
+        }
+        if (future != created || outcome.replayed()) {
+            count("replayed");
+        }
+        return outcome.response();
+    }
+
+    @Scheduled(fixedDelayString = "${marketplace.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - ttl.toMillis());
+        Integer purged = transactionTemplate.execute(status -> idempotencyRecordRepository.deleteCreatedBefore(cutoff));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} expired idempotency records", purged);
+        }
+    }
+
+    // Drops the in-memory outcome, forcing the next request with this key to go to the database
+    void evictLocal(String owner, String key) {
+        outcomes.invalidate(owner + ":" + key);
+    }
+
+    private Outcome run(String recordId, String fingerprint, Function<IdempotencyRecord, PurchaseResponse> purchase) {
+        try {
+            return new Outcome(fingerprint, purchase.apply(new IdempotencyRecord(recordId, fingerprint)), false);
+        } catch (DataIntegrityViolationException e) {
+            // Another node committed the same key first
+            return load(recordId).orElseThrow(() -> e);
+        }
+    }
+
+    private Optional<Outcome> load(String recordId) {
+        return idempotencyRecordRepository.findById(recordId)
+                .flatMap(record -> purchaseRepository.findResponseById(record.getPurchaseId())
+                        .map(response -> new Outcome(record.getRequestFingerprint(), response, true)));
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("marketplace.purchase.idempotency", "outcome", outcome).increment();
+    }
+
+    private record Outcome(String fingerprint, PurchaseResponse response, boolean replayed) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.dto.PurchaseEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Queue for in-application consumers. Once it holds capacity events it pushes back on the dispatcher;
+// a batch is accepted whole while it is below capacity, so it may overshoot by at most one batch.
+@Component
+@ConditionalOnProperty(name = "marketplace.outbox.sinks.in-process.enabled", havingValue = "true")
+public class InProcessPurchaseEventSink implements PurchaseEventSink, MeterBinder {
+
+    private final BlockingQueue<PurchaseEvent> queue;
+
+    private final int capacity;
+
+    public InProcessPurchaseEventSink(@Value("${marketplace.outbox.sinks.in-process.capacity:10000}") int capacity) {
+        this.queue = new LinkedBlockingQueue<>();
+        this.capacity = capacity;
+    }
+
+    @Override
+    public String getName() {
+        return "in-process";
+    }
+
+    @Override
+    public void publish(List<PurchaseEvent> events) {
+        if (queue.size() >= capacity) {
+            throw new OutboxBackpressureException("In-process event queue is full");
+        }
+        queue.addAll(events);
+    }
+
+    public PurchaseEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    public int drainTo(Collection<? super PurchaseEvent> target, int maxEvents) {
+        return queue.drainTo(target, maxEvents);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("marketplace.outbox.sink.queue.size", queue, BlockingQueue::size)
+                .tag("sink", getName())
+                .register(registry);
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
+import com.example.AnycompMarketplaceApplication.repository.PurchaseRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Optional in-memory inventory for hot items.
+ *
+ * <p>Stock of a hot item is reserved with a CAS on an in-memory counter instead of a row lock on
+ * {@code item}. The purchase row is still inserted synchronously, flagged {@code stockPending}; a
+ * periodic flush applies the pending quantities to {@code Item.quantity}, adds them to the daily sales
+ * aggregates and clears the flag in one transaction. Because the pending purchases themselves are the
+ * write-behind log, a crash loses nothing: {@link #reconcile()} re-applies them on startup.
+ *
+ * <p>Items become hot when listed in {@code marketplace.inventory.ledger.hot-item-ids} or when they
+ * receive {@code promotion-threshold} purchases within one flush interval. The ledger assumes it is
+ * the only writer for its hot items, i.e. a single application node.
+ */
+@Component
+public class InventoryLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryLedger.class);
+
+    private static final int STRIPES = 64;
+    private static final int MARK_CHUNK_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final ItemSalesService itemSalesService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final Set<Long> pinnedItemIds;
+    private final long promotionThreshold;
+    private final int maxHotItems;
+
+    private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> traffic = new ConcurrentHashMap<>();
+    private final ReadWriteLock[] stripes = new ReadWriteLock[STRIPES];
+    private final Lock flushLock = new ReentrantLock();
+
+    public InventoryLedger(ItemRepository itemRepository,
+                           PurchaseRepository purchaseRepository,
+                           ItemSalesService itemSalesService,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${marketplace.inventory.ledger.enabled:false}") boolean enabled,
+                           @Value("${marketplace.inventory.ledger.hot-item-ids:}") Set<Long> pinnedItemIds,
+                           @Value("${marketplace.inventory.ledger.promotion-threshold:0}") long promotionThreshold,
+                           @Value("${marketplace.inventory.ledger.max-hot-items:1000}") int maxHotItems) {
+        this.itemRepository = itemRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.itemSalesService = itemSalesService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.pinnedItemIds = pinnedItemIds;
+        this.promotionThreshold = promotionThreshold;
+        this.maxHotItems = maxHotItems;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isHot(Long itemId) {
+        return slots.containsKey(itemId);
+    }
+
+    /**
+     * Runs {@code ledgerPath} for hot items and {@code databasePath} otherwise. The database path runs
+     * under the stripe's read lock so an item cannot be promoted while a row-lock purchase of it is
+     * still in flight; {@code databasePath} must therefore complete its transaction before returning.
+     */
+    public <T> T route(Long itemId, Supplier<T> ledgerPath, Supplier<T> databasePath) {
+        if (!enabled) {
+            return databasePath.get();
+        }
+        if (!slots.containsKey(itemId) && shouldPromote(itemId)) {
+            promote(itemId);
+        }
+        if (slots.containsKey(itemId)) {
+            return ledgerPath.get();
+        }
+
+        Lock lock = stripeFor(itemId).readLock();
+        lock.lock();
+        try {
+            if (!slots.containsKey(itemId)) {
+                return databasePath.get();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return ledgerPath.get();
+    }
+
+    /**
+     * Multi-item variant of {@link #route} for batch purchases: holds the read locks of every stripe
+     * involved (in stripe order) while {@code action} runs, and lets it check {@link #isHot} per item.
+     * Batches do not count towards promotion.
+     */
+    public <T> T routeAll(Collection<Long> itemIds, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        SortedSet<Integer> stripeIndexes = new TreeSet<>();
+        for (Long itemId : itemIds) {
+            stripeIndexes.add(stripeIndex(itemId));
+        }
+        List<Lock> locks = new ArrayList<>(stripeIndexes.size());
+        try {
+            for (int index : stripeIndexes) {
+                Lock lock = stripes[index].readLock();
+                lock.lock();
+                locks.add(lock);
+            }
+            return action.get();
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    /**
+     * Reserves stock of a hot item. Must be called inside the transaction that inserts the pending
+     * purchase: the reservation is handed to the flush on commit and released on rollback.
+     */
+    public boolean tryReserve(Long itemId, int quantity) {
+        Slot slot = slots.get(itemId);
+        if (slot == null || !slot.tryReserve(quantity)) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    slot.unflushed.add(quantity);
+                } else {
+                    slot.available.addAndGet(quantity);
+                }
+            }
+        });
+        return true;
+    }
+
+    public long getAvailable(Long itemId) {
+        Slot slot = slots.get(itemId);
+        return slot != null ? slot.available.get() : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${marketplace.inventory.ledger.flush-interval-ms:500}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        traffic.clear();
+        flushLock.lock();
+        try {
+            slots.forEach((itemId, slot) -> {
+                if (slot.unflushed.sum() > 0) {
+                    slot.unflushed.add(-applyPendingStock(itemId));
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Inventory ledger flush failed, pending stock will be retried", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Applies stock left pending by a previous run (crash or ledger since disabled), then promotes pinned items
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        flushLock.lock();
+        try {
+            List<Long> itemIds = purchaseRepository.findItemIdsWithPendingStock();
+            for (Long itemId : itemIds) {
+                long applied = applyPendingStock(itemId);
+                log.info("Reconciled {} pending units of item {} from purchases", applied, itemId);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        if (enabled) {
+            pinnedItemIds.forEach(this::promote);
+        }
+    }
+
+    private long applyPendingStock(Long itemId) {
+        Long applied = transactionTemplate.execute(status -> {
+            List<PurchaseRepository.PendingStock> pending = purchaseRepository.findPendingStockByItemId(itemId);
+            if (pending.isEmpty()) {
+                return 0L;
+            }
+            long units = 0;
+            List<Long> ids = new ArrayList<>(pending.size());
+            for (PurchaseRepository.PendingStock row : pending) {
+                units += row.getQuantity();
+                ids.add(row.getId());
+            }
+            for (int from = 0; from < ids.size(); from += MARK_CHUNK_SIZE) {
+                purchaseRepository.markStockApplied(ids.subList(from, Math.min(from + MARK_CHUNK_SIZE, ids.size())));
+            }
+            itemRepository.applyStockDelta(itemId, units);
+            // Sales count once the stock is applied, under the row lock just taken
+            itemSalesService.recordAppliedStock(itemId, pending);
+            return units;
+        });
+        return applied != null ? applied : 0;
+    }
+
+    private boolean shouldPromote(Long itemId) {
+        if (pinnedItemIds.contains(itemId)) {
+            return true;
+        }
+        if (promotionThreshold <= 0 || slots.size() >= maxHotItems) {
+            return false;
+        }
+        LongAdder counter = traffic.computeIfAbsent(itemId, id -> new LongAdder());
+        counter.increment();
+        return counter.sum() >= promotionThreshold;
+    }
+
+    private void promote(Long itemId) {
+        Lock lock = stripeFor(itemId).writeLock();
+        lock.lock();
+        try {
+            if (slots.containsKey(itemId)) {
+                return;
+            }
+            // In-flight database purchases hold the read lock until commit, so this read is exact
+            Long available = transactionTemplate.execute(status -> itemRepository.findQuantityById(itemId)
+                    .map(quantity -> quantity - purchaseRepository.sumPendingStock(itemId))
+                    .orElse(null));
+            if (available != null) {
+                slots.put(itemId, new Slot(available));
+                log.info("Item {} promoted to the inventory ledger with {} units available", itemId, available);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReadWriteLock stripeFor(Long itemId) {
+        return stripes[stripeIndex(itemId)];
+    }
+
+    private static int stripeIndex(Long itemId) {
+        return Math.floorMod(itemId.hashCode(), STRIPES);
+    }
+
+    private static final class Slot {
+        private final AtomicLong available;
+        private final LongAdder unflushed = new LongAdder();
+
+        private Slot(long available) {
+            this.available = new AtomicLong(available);
+        }
+
+        private boolean tryReserve(int quantity) {
+            long current;
+            do {
+                current = available.get();
+                if (current < quantity) {
+                    return false;
+                }
+            } while (!available.compareAndSet(current, current - quantity));
+            return true;
+        }
+    }
+}
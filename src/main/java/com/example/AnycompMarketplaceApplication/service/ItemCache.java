@@ -0,0 +1,134 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.dto.ItemResponseDTO;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for item lookups and per-seller item pages.
+ *
+ * <p>Seller pages are keyed by a per-seller generation: invalidating a seller bumps its generation,
+ * so a page load that raced with the write is stored under a key nobody reads again. Invalidation
+ * runs after commit when called inside a transaction. Stock is not part of {@link ItemResponseDTO},
+ * so purchases do not invalidate anything.
+ *
+ * <p>Loads run on the calling thread outside the cache's internal locks (the caches hold futures),
+ * so a database call never pins a virtual thread to its carrier; concurrent misses on the same key
+ * wait for the first load instead of repeating it.
+ */
+@Component
+public class ItemCache implements MeterBinder {
+
+    private final boolean enabled;
+    private final AsyncCache<Long, ItemResponseDTO> items;
+    private final AsyncCache<SellerPageKey, Page<ItemResponseDTO>> sellerPages;
+    private final Map<Long, AtomicLong> sellerGenerations = new ConcurrentHashMap<>();
+
+    public ItemCache(@Value("${marketplace.cache.items.enabled:true}") boolean enabled,
+                     @Value("${marketplace.cache.items.max-size:10000}") long maxItems,
+                     @Value("${marketplace.cache.items.ttl:10m}") Duration itemTtl,
+                     @Value("${marketplace.cache.seller-pages.max-size:1000}") long maxSellerPages,
+                     @Value("${marketplace.cache.seller-pages.ttl:1m}") Duration sellerPageTtl) {
+        this.enabled = enabled;
+        this.items = Caffeine.newBuilder()
+                .maximumSize(maxItems)
+                .expireAfterWrite(itemTtl)
+                .recordStats()
+                .buildAsync();
+        this.sellerPages = Caffeine.newBuilder()
+                .maximumSize(maxSellerPages)
+                .expireAfterWrite(sellerPageTtl)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public Optional<ItemResponseDTO> getItem(Long id, Supplier<Optional<ItemResponseDTO>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        // Missing items are not cached, so a newly created item is visible immediately
+        return Optional.ofNullable(getOrLoad(items, id, () -> loader.get().orElse(null)));
+    }
+
+    public Page<ItemResponseDTO> getSellerPage(Long sellerId, Pageable pageable, Supplier<Page<ItemResponseDTO>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long generation = sellerGenerations.computeIfAbsent(sellerId, id -> new AtomicLong()).get();
+        SellerPageKey key = new SellerPageKey(sellerId, generation, pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+        return getOrLoad(sellerPages, key, loader);
+    }
+
+    public void evictItem(Long id) {
+        if (enabled) {
+            TransactionCallbacks.afterCommit(() -> items.synchronous().invalidate(id));
+        }
+    }
+
+    public void evictSellerPages(Long sellerId) {
+        if (enabled) {
+            TransactionCallbacks.afterCommit(() -> {
+                sellerGenerations.computeIfAbsent(sellerId, id -> new AtomicLong()).incrementAndGet();
+                sellerPages.synchronous().asMap().keySet().removeIf(key -> key.sellerId().equals(sellerId));
+            });
+        }
+    }
+
+    // Publishes size, hit, miss and eviction meters for both caches
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, items, "items");
+        CaffeineCacheMetrics.monitor(registry, sellerPages, "seller-item-pages");
+    }
+
+    public CacheStats getItemStats() {
+        return items.synchronous().stats();
+    }
+
+    public CacheStats getSellerPageStats() {
+        return sellerPages.synchronous().stats();
+    }
+
+    // A null value or a failed load completes the future without leaving an entry behind
+    private static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Supplier<V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> created);
+        if (future == created) {
+            try {
+                created.complete(loader.get());
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record SellerPageKey(Long sellerId, long generation, int page, int size, Sort sort) {
+    }
+}
@@ -0,0 +1,430 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.dto.FileFormat;
+import com.example.AnycompMarketplaceApplication.dto.ItemImportError;
+import com.example.AnycompMarketplaceApplication.dto.ItemImportResponse;
+import com.example.AnycompMarketplaceApplication.dto.ItemRequestDTO;
+import com.example.AnycompMarketplaceApplication.entity.Seller;
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
+import com.example.AnycompMarketplaceApplication.repository.SellerRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Bulk catalog upload for one seller. The body is parsed record by record and valid rows are
+ * inserted in JDBC batches of {@value #CHUNK_SIZE}, each chunk in its own transaction, so neither
+ * the upload nor the inserted entities are ever held in memory. A record may be at most
+ * {@value #MAX_RECORD_LENGTH} characters; a longer one (say, a CSV quote that is never closed) is
+ * skipped up to the end of the line where it overflows, without being buffered. Invalid rows are
+ * skipped and reported with their line number. Imported rows are added to the search index once the upload ends.
+ */
+@Service
+@Timed("marketplace.service")
+public class ItemImportService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_TEXT_LENGTH = 255;
+    static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+    private static final String INSERT_ITEM =
+            "insert into item (name, description, price, quantity, seller_id) values (?, ?, ?, ?, ?)";
+
+    private final SellerRepository sellerRepository;
+    private final ItemRepository itemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader ndjsonReader;
+    private final ItemCache itemCache;
+    private final ItemSearchIndex itemSearchIndex;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+
+    public ItemImportService(SellerRepository sellerRepository, ItemRepository itemRepository, JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                             ItemCache itemCache, ItemSearchIndex itemSearchIndex, EntityManagerFactory entityManagerFactory,
+                             MeterRegistry meterRegistry) {
+        this.sellerRepository = sellerRepository;
+        this.itemRepository = itemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ndjsonReader = objectMapper.readerFor(ItemRequestDTO.class);
+        this.itemCache = itemCache;
+        this.itemSearchIndex = itemSearchIndex;
+        this.entityManagerFactory = entityManagerFactory;
+        this.importedRows = meterRegistry.counter("marketplace.item.import.rows", "outcome", "imported");
+        this.rejectedRows = meterRegistry.counter("marketplace.item.import.rows", "outcome", "rejected");
+    }
+
+    public ItemImportResponse importItems(Long sellerId, FileFormat format, InputStream body) {
+        // Resolved once for the whole upload; a seller deleted mid-import fails the next chunk on its foreign key
+        if (!sellerRepository.existsById(sellerId)) {
+            throw new NoSuchElementException("Seller not found with ID: " + sellerId);
+        }
+
+        long start = System.nanoTime();
+        long lastIdBefore = itemRepository.findMaxIdBySellerId(sellerId);
+        ImportRun run = new ImportRun(sellerId);
+        try (LineReader reader = new LineReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            if (format == FileFormat.CSV) {
+                readCsv(reader, run);
+            } else {
+                readNdjson(reader, run);
+            }
+            run.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Item import aborted", e);
+        } finally {
+            itemCache.evictSellerPages(sellerId);
+            // Rows went in over JDBC, so Hibernate's cached seller item lists and pages do not know about them
+            Cache secondLevelCache = entityManagerFactory.getCache().unwrap(Cache.class);
+            secondLevelCache.evictCollectionData(Seller.class.getName() + ".items", sellerId);
+            secondLevelCache.evictQueryRegion(ItemRepository.SELLER_PAGES_CACHE_REGION);
+            itemSearchIndex.indexSellerItemsAfter(sellerId, lastIdBefore);
+        }
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        ItemImportResponse response = new ItemImportResponse();
+        response.setImported(run.imported);
+        response.setRejected(run.rejected);
+        response.setErrors(run.errors);
+        response.setDurationMillis(elapsedNanos / 1_000_000);
+        response.setRowsPerSecond((run.imported + run.rejected) * 1e9 / elapsedNanos);
+        return response;
+    }
+
+    private void readNdjson(LineReader reader, ImportRun run) throws IOException {
+        while (true) {
+            long lineNumber = reader.getLineNumber() + 1;
+            String line;
+            try {
+                line = reader.readLine(MAX_RECORD_LENGTH);
+            } catch (IllegalArgumentException e) {
+                run.reject(lineNumber, e.getMessage());
+                continue;
+            }
+            if (line == null) {
+                return;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                ItemRequestDTO row = ndjsonReader.readValue(line);
+                if (row == null) {
+                    run.reject(lineNumber, "Malformed JSON: expected an object");
+                } else {
+                    run.add(lineNumber, row);
+                }
+            } catch (JsonProcessingException e) {
+                run.reject(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readCsv(LineReader reader, ImportRun run) throws IOException {
+        CsvRecordReader records = new CsvRecordReader(reader);
+        List<String> header = records.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new IllegalArgumentException("CSV header must contain the columns name and price");
+        }
+
+        while (true) {
+            long lineNumber = records.getLineNumber() + 1;
+            List<String> fields;
+            try {
+                fields = records.next();
+            } catch (IllegalArgumentException e) {
+                run.reject(lineNumber, e.getMessage());
+                continue;
+            }
+            if (fields == null) {
+                return;
+            }
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            try {
+                ItemRequestDTO row = new ItemRequestDTO();
+                row.setName(field(fields, columns, "name"));
+                row.setDescription(field(fields, columns, "description"));
+                String price = field(fields, columns, "price");
+                row.setPrice(price != null ? Double.valueOf(price) : null);
+                String quantity = field(fields, columns, "quantity");
+                row.setQuantity(quantity != null ? Integer.valueOf(quantity) : null);
+                run.add(lineNumber, row);
+            } catch (NumberFormatException e) {
+                run.reject(lineNumber, "Invalid number: " + e.getMessage());
+            }
+        }
+    }
+
+    // Empty or missing cells are null
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index).trim();
+    }
+
+    static String validate(ItemRequestDTO row) {
+        if (row.getName() == null || row.getName().isBlank()) {
+            return "name is required";
+        }
+        if (row.getName().length() > MAX_TEXT_LENGTH) {
+            return "name must be at most " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (row.getDescription() != null && row.getDescription().length() > MAX_TEXT_LENGTH) {
+            return "description must be at most " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (row.getPrice() == null) {
+            return "price is required";
+        }
+        if (!Double.isFinite(row.getPrice()) || row.getPrice() < 0) {
+            return "price must be a non-negative number";
+        }
+        if (row.getQuantity() != null && row.getQuantity() < 0) {
+            return "quantity must not be negative";
+        }
+        return null;
+    }
+
+    // Accumulates valid rows into chunks and counts outcomes for one upload
+    private final class ImportRun {
+
+        private final Long sellerId;
+        private final List<ItemRequestDTO> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final List<ItemImportError> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        private ImportRun(Long sellerId) {
+            this.sellerId = sellerId;
+        }
+
+        private void add(long lineNumber, ItemRequestDTO row) {
+            String error = validate(row);
+            if (error != null) {
+                reject(lineNumber, error);
+                return;
+            }
+            chunk.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        private void reject(long lineNumber, String message) {
+            rejected++;
+            rejectedRows.increment();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                ItemImportError error = new ItemImportError();
+                error.setLine(lineNumber);
+                error.setError(message);
+                errors.add(error);
+            }
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_ITEM, chunk, chunk.size(), (statement, row) -> {
+                        statement.setString(1, row.getName());
+                        statement.setString(2, row.getDescription());
+                        statement.setDouble(3, row.getPrice());
+                        statement.setInt(4, row.getQuantity() != null ? row.getQuantity() : 0);
+                        statement.setLong(5, sellerId);
+                    }));
+            imported += chunk.size();
+            importedRows.increment(chunk.size());
+            chunk.clear();
+        }
+    }
+
+    // RFC 4180 records; a quoted field may span several physical lines, up to MAX_RECORD_LENGTH characters in all
+    static final class CsvRecordReader {
+
+        private final LineReader reader;
+
+        CsvRecordReader(LineReader reader) {
+            this.reader = reader;
+        }
+
+        long getLineNumber() {
+            return reader.getLineNumber();
+        }
+
+        // Returns null at the end of input. A malformed or overlong record throws IllegalArgumentException
+        // with the reader positioned at the next line.
+        List<String> next() throws IOException {
+            String line = readLine(0);
+            if (line == null) {
+                return null;
+            }
+            int length = line.length();
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == line.length()) {
+                    if (!quoted) {
+                        fields.add(field.toString());
+                        return fields;
+                    }
+                    line = readLine(length + 1);
+                    if (line == null) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    length += line.length() + 1;
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+        }
+
+        // The next physical line, if the record (used characters so far) stays within MAX_RECORD_LENGTH
+        private String readLine(int used) throws IOException {
+            try {
+                return reader.readLine(MAX_RECORD_LENGTH - used);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Record longer than " + MAX_RECORD_LENGTH + " characters");
+            }
+        }
+    }
+
+    /**
+     * Line reader with a length cap, ending lines at {@code \n}, {@code \r} or {@code \r\n} like
+     * {@link java.io.BufferedReader#readLine()}. The rest of a line over the cap is read and discarded,
+     * so a line without a break never grows the buffer past the cap.
+     */
+    static final class LineReader implements Closeable {
+
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean skipLineFeed;
+        private long lineNumber;
+
+        LineReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        // Lines read so far, including an overlong one
+        long getLineNumber() {
+            return lineNumber;
+        }
+
+        // Returns null at the end of input; a line longer than maxLength is skipped and throws IllegalArgumentException
+        String readLine(int maxLength) throws IOException {
+            line.setLength(0);
+            boolean tooLong = false;
+            boolean started = false;
+            while (true) {
+                if (position == limit && !fill()) {
+                    if (!started) {
+                        return null;
+                    }
+                    break;
+                }
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (buffer[position] == '\n') {
+                        position++;
+                        continue;
+                    }
+                }
+                started = true;
+                int start = position;
+                while (position < limit && buffer[position] != '\n' && buffer[position] != '\r') {
+                    position++;
+                }
+                if (!tooLong && line.length() + position - start > maxLength) {
+                    tooLong = true;
+                    line.setLength(0);
+                }
+                if (!tooLong) {
+                    line.append(buffer, start, position - start);
+                }
+                if (position < limit) {
+                    skipLineFeed = buffer[position++] == '\r';
+                    break;
+                }
+            }
+            lineNumber++;
+            if (tooLong) {
+                throw new IllegalArgumentException("Line longer than " + maxLength + " characters");
+            }
+            return line.toString();
+        }
+
+        private boolean fill() throws IOException {
+            int read = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            limit = Math.max(read, 0);
+            return read > 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
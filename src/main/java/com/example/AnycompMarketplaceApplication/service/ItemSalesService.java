@@ -0,0 +1,235 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.dto.SalesDay;
+import com.example.AnycompMarketplaceApplication.dto.SalesReport;
+import com.example.AnycompMarketplaceApplication.entity.Purchase;
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
+import com.example.AnycompMarketplaceApplication.repository.ItemSalesDailyRepository;
+import com.example.AnycompMarketplaceApplication.repository.PurchaseRepository;
+import com.example.AnycompMarketplaceApplication.repository.SellerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Daily units sold and revenue per item, kept in {@code item_sales_daily} so seller dashboards never
+ * scan purchases.
+ *
+ * <p>Rows are added to in the transaction that applies a purchase to {@code Item.quantity}: the
+ * purchase itself on the database path, the ledger flush for hot items. Both hold the item's row
+ * lock at that point, so all writers of an item's rows are serialized. Revenue uses the unit price
+ * captured on the purchase. {@link #rebuild()} recomputes every row from purchases in item id
+ * chunks, each under the row locks of its items.
+ */
+@Service
+public class ItemSalesService {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemSalesService.class);
+
+    private static final int DEFAULT_RANGE_DAYS = 30;
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private final ItemSalesDailyRepository itemSalesDailyRepository;
+    private final ItemRepository itemRepository;
+    private final SellerRepository sellerRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int rebuildChunkSize;
+    private final int rebuildParallelism;
+
+    private final Lock rebuildLock = new ReentrantLock();
+
+    public ItemSalesService(ItemSalesDailyRepository itemSalesDailyRepository,
+                            ItemRepository itemRepository,
+                            SellerRepository sellerRepository,
+                            PurchaseRepository purchaseRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${marketplace.sales.rebuild.chunk-size:1000}") int rebuildChunkSize,
+                            @Value("${marketplace.sales.rebuild.parallelism:4}") int rebuildParallelism) {
+        this.itemSalesDailyRepository = itemSalesDailyRepository;
+        this.itemRepository = itemRepository;
+        this.sellerRepository = sellerRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = ReplicaReads.transactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.rebuildChunkSize = rebuildChunkSize;
+        this.rebuildParallelism = rebuildParallelism;
+    }
+
+    /**
+     * Adds purchases whose stock was applied in the current transaction. Callers hold the row locks
+     * of the purchased items; purchases still pending in the inventory ledger are skipped.
+     */
+    public void recordPurchases(List<Purchase> purchases) {
+        Map<Long, Map<LocalDate, Sales>> byItem = new LinkedHashMap<>();
+        for (Purchase purchase : purchases) {
+            if (purchase.isStockPending()) {
+                continue;
+            }
+            byItem.computeIfAbsent(purchase.getItem().getId(), id -> new LinkedHashMap<>())
+                    .computeIfAbsent(salesDate(purchase.getPurchaseDate()), date -> new Sales())
+                    .add(purchase.getQuantity(), purchase.getUnitPrice());
+        }
+        byItem.forEach((itemId, days) -> days.forEach((date, sales) -> add(itemId, date, sales)));
+    }
+
+    // Called by the ledger flush, in the transaction and under the row lock that applies the stock
+    void recordAppliedStock(Long itemId, List<PurchaseRepository.PendingStock> applied) {
+        Map<LocalDate, Sales> days = new LinkedHashMap<>();
+        for (PurchaseRepository.PendingStock row : applied) {
+            days.computeIfAbsent(salesDate(row.getPurchaseDate()), date -> new Sales())
+                    .add(row.getQuantity(), row.getUnitPrice());
+        }
+        days.forEach((date, sales) -> add(itemId, date, sales));
+    }
+
+    public SalesReport getSellerSales(Long sellerId, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS - 1);
+        checkRange(start, end);
+        return readOnlyTransactionTemplate.execute(status -> {
+            if (!sellerRepository.existsById(sellerId)) {
+                throw new NoSuchElementException("Seller not found with ID: " + sellerId);
+            }
+            return toReport(start, end, itemSalesDailyRepository.findSellerSales(sellerId, start, end));
+        });
+    }
+
+    public SalesReport getItemSales(Long itemId, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS - 1);
+        checkRange(start, end);
+        return readOnlyTransactionTemplate.execute(status -> {
+            if (!itemRepository.existsById(itemId)) {
+                throw new NoSuchElementException("Item not found with ID: " + itemId);
+            }
+            return toReport(start, end, itemSalesDailyRepository.findItemSales(itemId, start, end));
+        });
+    }
+
+    // Fills the table on first start after it was introduced
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (itemSalesDailyRepository.count() == 0 && purchaseRepository.existsByStockPendingFalse()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recomputes all rows from purchases, {@code rebuild.parallelism} item id chunks at a time. Each
+     * chunk locks its items, deletes their rows and re-aggregates them in one transaction, so
+     * purchases made meanwhile are counted exactly once. Returns the number of rows written, or -1
+     * if a rebuild is already running.
+     */
+    @Scheduled(cron = "${marketplace.sales.rebuild.cron:-}")
+    public long rebuild() {
+        if (!rebuildLock.tryLock()) {
+            log.info("Sales aggregate rebuild already running");
+            return -1;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(rebuildParallelism);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            long maxItemId = itemRepository.findMaxId();
+            List<Future<Integer>> chunks = new ArrayList<>();
+            for (long fromId = 1; fromId <= maxItemId; fromId += rebuildChunkSize) {
+                long first = fromId;
+                long last = Math.min(fromId + rebuildChunkSize - 1, maxItemId);
+                chunks.add(executor.submit(() -> transactionTemplate.execute(status -> rebuildChunk(first, last))));
+            }
+            long rows = 0;
+            for (Future<Integer> chunk : chunks) {
+                rows += chunk.get();
+            }
+            log.info("Rebuilt {} sales aggregate rows for items 1-{} in {} chunks", rows, maxItemId, chunks.size());
+            return rows;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sales aggregate rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sales aggregate rebuild failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            sample.stop(meterRegistry.timer("marketplace.sales.rebuild"));
+            rebuildLock.unlock();
+        }
+    }
+
+    private int rebuildChunk(long fromId, long toId) {
+        itemRepository.lockIdRange(fromId, toId);
+        itemSalesDailyRepository.deleteByItemIdRange(fromId, toId);
+        return itemSalesDailyRepository.insertFromPurchases(fromId, toId);
+    }
+
+    private void add(Long itemId, LocalDate date, Sales sales) {
+        if (itemSalesDailyRepository.addSales(itemId, date, sales.units, sales.revenue, sales.purchases) == 0) {
+            itemSalesDailyRepository.insertSales(itemId, date, sales.units, sales.revenue, sales.purchases);
+        }
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+    }
+
+    private SalesReport toReport(LocalDate from, LocalDate to, List<SalesDay> days) {
+        SalesReport report = new SalesReport();
+        report.setFrom(from);
+        report.setTo(to);
+        report.setDays(days);
+        for (SalesDay day : days) {
+            report.setUnits(report.getUnits() + day.getUnits());
+            report.setRevenue(report.getRevenue() + day.getRevenue());
+            report.setPurchases(report.getPurchases() + day.getPurchases());
+        }
+        return report;
+    }
+
+    // Same calendar day as cast(purchase_date as date) in the rebuild query: both use the stored wall-clock time
+    private static LocalDate salesDate(Timestamp purchaseDate) {
+        return purchaseDate.toLocalDateTime().toLocalDate();
+    }
+
+    private static final class Sales {
+        private long units;
+        private double revenue;
+        private long purchases;
+
+        private void add(int quantity, Double unitPrice) {
+            units += quantity;
+            revenue += unitPrice != null ? quantity * unitPrice : 0;
+            purchases++;
+        }
+    }
+}
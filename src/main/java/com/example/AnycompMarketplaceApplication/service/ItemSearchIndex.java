@@ -0,0 +1,346 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.dto.ItemSearchHit;
+import com.example.AnycompMarketplaceApplication.dto.ItemSearchResponse;
+import com.example.AnycompMarketplaceApplication.dto.SellerFacet;
+import com.example.AnycompMarketplaceApplication.entity.Item;
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsCollectorManager;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.LongValueFacetCounts;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollectorManager;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * In-process Lucene index over item name, description, price and seller, serving
+ * {@code GET /items/search} without touching the database.
+ *
+ * <p>The index is rebuilt from the database at startup and kept in sync after each committed item
+ * write. A write is applied by re-reading the item under a per-item lock, so whichever sync runs
+ * last indexes the latest committed state no matter in which order commits and syncs interleave.
+ * Bulk passes (the startup rebuild, imports) index rows read earlier; items written while a bulk
+ * pass runs are re-synced when it ends. Searches see changes after the next refresh
+ * ({@code marketplace.search.refresh-interval-ms}).
+ */
+@Component
+public class ItemSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemSearchIndex.class);
+
+    private static final int STRIPES = 64;
+    private static final int BULK_CHUNK_SIZE = 1000;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_RESULT_WINDOW = 10_000;
+    private static final int MAX_FACETS = 100;
+
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
+    private static final String PRICE = "price";
+    private static final String SELLER_ID = "sellerId";
+
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate readTransaction;
+    private final Analyzer analyzer = new EnglishAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final Lock[] stripes = new Lock[STRIPES];
+
+    // Ids written during each running bulk pass
+    private final List<Set<Long>> bulkPasses = new CopyOnWriteArrayList<>();
+
+    public ItemSearchIndex(ItemRepository itemRepository, PlatformTransactionManager transactionManager,
+                           @Value("${marketplace.search.index-path:}") String indexPath) throws IOException {
+        this.itemRepository = itemRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        // The index is always rebuilt at startup; a directory on disk only moves it off the heap
+        this.directory = indexPath.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexPath));
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        this.searcherManager = new SearcherManager(writer, null);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // Re-syncs an item once the current transaction commits; a missing item is removed from the index
+    public void reindex(Long itemId) {
+        TransactionCallbacks.afterCommit(() -> {
+            try {
+                sync(itemId);
+            } catch (RuntimeException e) {
+                log.warn("Search index sync of item {} failed, it stays stale until the next rebuild", itemId, e);
+            }
+        });
+    }
+
+    // Indexes the seller's items with an id above afterId, i.e. the rows of a bulk import
+    public void indexSellerItemsAfter(Long sellerId, long afterId) {
+        long indexed = bulk(lastId -> itemRepository.findSliceBySellerIdAfter(sellerId, lastId, PageRequest.ofSize(BULK_CHUNK_SIZE)),
+                afterId);
+        log.info("Indexed {} imported items of seller {}", indexed, sellerId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        try {
+            writer.deleteAll();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Search index rebuild failed", e);
+        }
+        long indexed = bulk(lastId -> itemRepository.findSliceAfter(lastId, PageRequest.ofSize(BULK_CHUNK_SIZE)), Long.MIN_VALUE);
+        log.info("Search index rebuilt with {} items in {} ms", indexed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Scheduled(fixedDelayString = "${marketplace.search.refresh-interval-ms:1000}")
+    public void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.warn("Search index refresh failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Ranked search: {@code text} uses simple query syntax ({@code +}, {@code |}, {@code -},
+     * {@code "phrases"}, {@code prefix*}) over name (boosted) and description, all terms required by
+     * default. Price bounds are inclusive. Without text, every item passes the filters with equal score.
+     */
+    public ItemSearchResponse search(String text, Double minPrice, Double maxPrice, Long sellerId,
+                                     int page, int size, int facetLimit) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        if ((long) (page + 1) * size > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Results beyond the first " + MAX_RESULT_WINDOW + " are not available, refine the query");
+        }
+        if (facetLimit < 0 || facetLimit > MAX_FACETS) {
+            throw new IllegalArgumentException("facets must be between 0 and " + MAX_FACETS);
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice must not exceed maxPrice");
+        }
+
+        BooleanQuery.Builder filtered = new BooleanQuery.Builder();
+        if (text != null && !text.isBlank()) {
+            SimpleQueryParser parser = new SimpleQueryParser(analyzer, Map.of(NAME, 2f, DESCRIPTION, 1f));
+            parser.setDefaultOperator(BooleanClause.Occur.MUST);
+            filtered.add(parser.parse(text), BooleanClause.Occur.MUST);
+        } else {
+            filtered.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+        if (minPrice != null || maxPrice != null) {
+            filtered.add(DoublePoint.newRangeQuery(PRICE,
+                    minPrice != null ? minPrice : Double.NEGATIVE_INFINITY,
+                    maxPrice != null ? maxPrice : Double.POSITIVE_INFINITY), BooleanClause.Occur.FILTER);
+        }
+        Query facetQuery = filtered.build();
+        Query query = facetQuery;
+        if (sellerId != null) {
+            query = new BooleanQuery.Builder()
+                    .add(facetQuery, BooleanClause.Occur.MUST)
+                    .add(LongPoint.newExactQuery(SELLER_ID, sellerId), BooleanClause.Occur.FILTER)
+                    .build();
+        }
+
+        IndexSearcher searcher = acquire();
+        try {
+            TopDocs topDocs = searcher.search(query, new TopScoreDocCollectorManager((page + 1) * size, null, Integer.MAX_VALUE));
+            StoredFields storedFields = searcher.storedFields();
+            List<ItemSearchHit> hits = new ArrayList<>(size);
+            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            for (int i = page * size; i < scoreDocs.length; i++) {
+                hits.add(toHit(storedFields.document(scoreDocs[i].doc), scoreDocs[i].score));
+            }
+
+            ItemSearchResponse response = new ItemSearchResponse();
+            response.setTotalHits(topDocs.totalHits.value);
+            response.setPage(page);
+            response.setSize(size);
+            response.setHits(hits);
+            response.setSellers(facetLimit > 0 ? sellerFacets(searcher, facetQuery, facetLimit) : List.of());
+            return response;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Item search failed", e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    private List<SellerFacet> sellerFacets(IndexSearcher searcher, Query query, int limit) throws IOException {
+        FacetsCollector collector = searcher.search(query, new FacetsCollectorManager());
+        FacetResult result = new LongValueFacetCounts(SELLER_ID, collector).getTopChildren(limit, SELLER_ID);
+        List<SellerFacet> facets = new ArrayList<>();
+        if (result != null) {
+            for (LabelAndValue labelAndValue : result.labelValues) {
+                SellerFacet facet = new SellerFacet();
+                facet.setSellerId(Long.valueOf(labelAndValue.label));
+                facet.setCount(labelAndValue.value.longValue());
+                facets.add(facet);
+            }
+        }
+        return facets;
+    }
+
+    private void sync(Long itemId) {
+        Lock lock = stripes[Math.floorMod(itemId.hashCode(), STRIPES)];
+        lock.lock();
+        try {
+            Optional<Item> item = readTransaction.execute(status -> itemRepository.findById(itemId));
+            if (item != null && item.isPresent()) {
+                writer.updateDocument(idTerm(itemId), toDocument(item.get()));
+            } else {
+                writer.deleteDocuments(idTerm(itemId));
+            }
+            bulkPasses.forEach(written -> written.add(itemId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Walks keyset chunks from afterId, then re-syncs whatever was written concurrently
+    private long bulk(Function<Long, Slice<Item>> chunks, long afterId) {
+        Set<Long> writtenMeanwhile = ConcurrentHashMap.newKeySet();
+        bulkPasses.add(writtenMeanwhile);
+        long indexed = 0;
+        try {
+            Slice<Item> chunk;
+            long lastId = afterId;
+            do {
+                chunk = chunks.apply(lastId);
+                for (Item item : chunk) {
+                    writer.updateDocument(idTerm(item.getId()), toDocument(item));
+                    lastId = item.getId();
+                    indexed++;
+                }
+            } while (chunk.hasNext());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Bulk indexing failed", e);
+        } finally {
+            bulkPasses.remove(writtenMeanwhile);
+        }
+        writtenMeanwhile.forEach(this::sync);
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            log.warn("Search index refresh failed", e);
+        }
+        return indexed;
+    }
+
+    private static Term idTerm(Long itemId) {
+        return new Term(ID, String.valueOf(itemId));
+    }
+
+    private static Document toDocument(Item item) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(item.getId()), Field.Store.YES));
+        document.add(new TextField(NAME, item.getName() != null ? item.getName() : "", Field.Store.YES));
+        if (item.getDescription() != null) {
+            document.add(new TextField(DESCRIPTION, item.getDescription(), Field.Store.NO));
+        }
+        document.add(new DoublePoint(PRICE, item.getPrice()));
+        document.add(new StoredField(PRICE, item.getPrice()));
+        if (item.getSeller() != null) {
+            long sellerId = item.getSeller().getId();
+            document.add(new LongPoint(SELLER_ID, sellerId));
+            document.add(new NumericDocValuesField(SELLER_ID, sellerId));
+            document.add(new StoredField(SELLER_ID, sellerId));
+        }
+        return document;
+    }
+
+    private static ItemSearchHit toHit(Document document, float score) {
+        ItemSearchHit hit = new ItemSearchHit();
+        hit.setId(Long.valueOf(document.get(ID)));
+        hit.setName(document.get(NAME));
+        hit.setPrice(document.getField(PRICE).numericValue().doubleValue());
+        if (document.getField(SELLER_ID) != null) {
+            hit.setSellerId(document.getField(SELLER_ID).numericValue().longValue());
+        }
+        hit.setScore(score);
+        return hit;
+    }
+
+    private IndexSearcher acquire() {
+        try {
+            return searcherManager.acquire();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void release(IndexSearcher searcher) {
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            log.warn("Could not release index searcher", e);
+        }
+    }
+}
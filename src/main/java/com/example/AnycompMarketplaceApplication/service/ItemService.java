@@ -1,35 +1,51 @@
 package com.example.AnycompMarketplaceApplication.service;
 
+import com.example.AnycompMarketplaceApplication.dto.CursorPage;
 import com.example.AnycompMarketplaceApplication.dto.ItemRequestDTO;
 import com.example.AnycompMarketplaceApplication.dto.ItemResponseDTO;
+import com.example.AnycompMarketplaceApplication.dto.ItemSearchResponse;
 import com.example.AnycompMarketplaceApplication.entity.Item;
 import com.example.AnycompMarketplaceApplication.entity.Seller;
 import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
 import com.example.AnycompMarketplaceApplication.repository.SellerRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Optional;
 
 @Service
+@Timed("marketplace.service")
 public class ItemService {
 
     private final ItemRepository itemRepository;
     private final SellerRepository sellerRepository;
+    private final ItemCache itemCache;
+    private final ItemSearchIndex itemSearchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate replicaReads;
 
-    public ItemService(ItemRepository itemRepository, SellerRepository sellerRepository) {
+    public ItemService(ItemRepository itemRepository, SellerRepository sellerRepository, ItemCache itemCache,
+                       ItemSearchIndex itemSearchIndex, PlatformTransactionManager transactionManager) {
         this.itemRepository = itemRepository;
         this.sellerRepository = sellerRepository;
+        this.itemCache = itemCache;
+        this.itemSearchIndex = itemSearchIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.replicaReads = ReplicaReads.transactionTemplate(transactionManager);
     }
 
-    // Convert Entity to DTO
-    private ItemResponseDTO convertToDTO(Item item) {
+    // Convert Entity to DTO (package-private for the mapping benchmark)
+    ItemResponseDTO convertToDTO(Item item) {
         ItemResponseDTO dto = new ItemResponseDTO();
         dto.setId(item.getId());
         dto.setName(item.getName());
         dto.setPrice(item.getPrice());
         dto.setSellerId(item.getSeller().getId());
+        dto.setVersion(item.getVersion());
         return dto;
     }
 
@@ -38,19 +54,35 @@ public class ItemService {
         Item item = new Item();
         item.setName(dto.getName());
         item.setPrice(dto.getPrice());
+        item.setDescription(dto.getDescription());
+        item.setQuantity(dto.getQuantity() != null ? dto.getQuantity() : 0);
         return item;
     }
 
     public Page<ItemResponseDTO> getAllItems(Pageable pageable) {
-        return itemRepository.findAll(pageable).map(this::convertToDTO);
+        return replicaReads.execute(status -> itemRepository.findAll(pageable).map(this::convertToDTO));
     }
 
+    public CursorPage<ItemResponseDTO> getItemsAfter(String after, Integer size) {
+        Long afterId = after == null ? Long.MIN_VALUE : KeysetCursor.decodeId(after);
+        Pageable limit = KeysetCursor.limit(size);
+        return replicaReads.execute(status -> CursorPage.of(itemRepository.findSliceAfter(afterId, limit).map(this::convertToDTO),
+                item -> KeysetCursor.encodeId(item.getId())));
+    }
+
+    public ItemSearchResponse searchItems(String text, Double minPrice, Double maxPrice, Long sellerId,
+                                          int page, int size, int facets) {
+        return itemSearchIndex.search(text, minPrice, maxPrice, sellerId, page, size, facets);
+    }
+
+    // Cache fills read the primary, so an evicted entry is never refilled from a lagging replica
     public Optional<ItemResponseDTO> getItemById(Long id) {
-        return itemRepository.findById(id).map(this::convertToDTO);
+        return itemCache.getItem(id, () -> itemRepository.findById(id).map(this::convertToDTO));
     }
 
     public Page<ItemResponseDTO> getItemsBySellerId(Long sellerId, Pageable pageable) {
-        return itemRepository.findBySellerId(sellerId, pageable).map(this::convertToDTO);
+        return itemCache.getSellerPage(sellerId, pageable,
+                () -> itemRepository.findBySellerId(sellerId, pageable).map(this::convertToDTO));
     }
 
     public ItemResponseDTO addItem(Long sellerId, ItemRequestDTO itemDTO) {
@@ -60,22 +92,34 @@ public class ItemService {
         Item item = convertToEntity(itemDTO);
         item.setSeller(seller);
         Item savedItem = itemRepository.save(item);
+        itemCache.evictSellerPages(sellerId);
+        itemSearchIndex.reindex(savedItem.getId());
 
         return convertToDTO(savedItem);
     }
 
+    // Changes the managed entity in one transaction: with @DynamicUpdate the UPDATE only names the edited
+    // columns, so stock moved by a purchase since the read is not written back
     public ItemResponseDTO updateItem(Long id, ItemRequestDTO itemDTO) {
-        Item item = itemRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Item not found with ID: " + id));
-
-        item.setName(itemDTO.getName());
-        item.setPrice(itemDTO.getPrice());
-
-        Item updatedItem = itemRepository.save(item);
+        Item updatedItem = transactionTemplate.execute(status -> {
+            Item item = itemRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Item not found with ID: " + id));
+            item.setName(itemDTO.getName());
+            item.setPrice(itemDTO.getPrice());
+            return item;
+        });
+        itemCache.evictItem(id);
+        itemCache.evictSellerPages(updatedItem.getSeller().getId());
+        itemSearchIndex.reindex(id);
         return convertToDTO(updatedItem);
     }
 
     public void deleteItem(Long id) {
-        itemRepository.deleteById(id);
+        itemRepository.findById(id).ifPresent(item -> {
+            itemRepository.delete(item);
+            itemCache.evictItem(id);
+            itemCache.evictSellerPages(item.getSeller().getId());
+            itemSearchIndex.reindex(id);
+        });
     }
 }
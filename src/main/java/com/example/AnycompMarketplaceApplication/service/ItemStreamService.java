@@ -0,0 +1,69 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.dto.ItemResponseDTO;
+import com.example.AnycompMarketplaceApplication.entity.ItemRow;
+import com.example.AnycompMarketplaceApplication.repository.ItemRowRepository;
+import com.example.AnycompMarketplaceApplication.repository.SellerRowRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Streams catalog items over R2DBC for high-fan-out browsing. Nothing here blocks a thread: rows are
+ * read as the response is written and the database is asked for more only when the client keeps up.
+ *
+ * <p>Reads go to {@code spring.r2dbc.url} directly and bypass the item cache, the second-level cache
+ * and the replica lag check, so they see committed rows with no caching on top.
+ */
+@Service
+public class ItemStreamService {
+
+    private final ItemRowRepository itemRowRepository;
+    private final SellerRowRepository sellerRowRepository;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public ItemStreamService(ItemRowRepository itemRowRepository, SellerRowRepository sellerRowRepository,
+                             @Value("${marketplace.item-stream.default-limit:1000}") int defaultLimit,
+                             @Value("${marketplace.item-stream.max-limit:100000}") int maxLimit) {
+        this.itemRowRepository = itemRowRepository;
+        this.sellerRowRepository = sellerRowRepository;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    // Arguments are checked before the stream is returned, so a bad request fails before any output
+    public Flux<ItemResponseDTO> streamItems(Long afterId, Integer limit) {
+        int rows = checkLimit(limit);
+        return itemRowRepository.findAfter(afterId == null ? Long.MIN_VALUE : afterId, rows)
+                .map(ItemStreamService::convertToDTO);
+    }
+
+    // Empty when the seller does not exist, so the caller can answer 404 instead of an empty stream
+    public Mono<Flux<ItemResponseDTO>> streamItemsBySeller(Long sellerId, Long afterId, Integer limit) {
+        int rows = checkLimit(limit);
+        long after = afterId == null ? Long.MIN_VALUE : afterId;
+        return sellerRowRepository.existsById(sellerId)
+                .filter(Boolean::booleanValue)
+                .map(exists -> itemRowRepository.findBySellerIdAfter(sellerId, after, rows)
+                        .map(ItemStreamService::convertToDTO));
+    }
+
+    private int checkLimit(Integer limit) {
+        int rows = limit == null ? defaultLimit : limit;
+        if (rows < 1 || rows > maxLimit) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxLimit);
+        }
+        return rows;
+    }
+
+    private static ItemResponseDTO convertToDTO(ItemRow item) {
+        ItemResponseDTO dto = new ItemResponseDTO();
+        dto.setId(item.id());
+        dto.setName(item.name());
+        dto.setPrice(item.price());
+        dto.setSellerId(item.sellerId());
+        return dto;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+// A sink is full; the dispatcher pauses without counting a failed attempt
+public class OutboxBackpressureException extends RuntimeException {
+
+    public OutboxBackpressureException(String message) {
+        super(message);
+    }
+}
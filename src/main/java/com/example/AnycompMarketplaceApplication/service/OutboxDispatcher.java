@@ -0,0 +1,263 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.dto.PurchaseEvent;
+import com.example.AnycompMarketplaceApplication.entity.OutboxEvent;
+import com.example.AnycompMarketplaceApplication.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drains the outbox to every {@link PurchaseEventSink} in batches, oldest first.
+ *
+ * <p>A batch is locked, handed to each sink and deleted in one transaction, so it is never lost. If
+ * a sink fails, the batch is handed over again one event at a time, so only the events that fail on
+ * their own are retried, after an exponential backoff (to every sink again, hence at-least-once
+ * delivery); when the first two events both fail, the sink is taken to be down and the whole batch
+ * is retried. An event that fails {@code max-attempts} times is moved to {@code outbox_dead_letter}.
+ * A sink that pushes back ends the run without counting an attempt; events then wait in the outbox,
+ * which is the buffer. Pending count, lag of the oldest event and dead letters are published as gauges.
+ */
+@Component
+public class OutboxDispatcher implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final int MAX_BACKOFF_SHIFT = 20;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<PurchaseEventSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader payloadReader;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final int maxAttempts;
+
+    private final Lock dispatchLock = new ReentrantLock();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestPendingMillis = new AtomicLong();
+    private final AtomicLong deadLetters = new AtomicLong();
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            List<PurchaseEventSink> sinks,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${marketplace.outbox.enabled:false}") boolean enabled,
+                            @Value("${marketplace.outbox.batch-size:500}") int batchSize,
+                            @Value("${marketplace.outbox.max-batches-per-run:20}") int maxBatchesPerRun,
+                            @Value("${marketplace.outbox.retry.initial-backoff:1s}") Duration initialBackoff,
+                            @Value("${marketplace.outbox.retry.max-backoff:5m}") Duration maxBackoff,
+                            @Value("${marketplace.outbox.retry.max-attempts:20}") int maxAttempts) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.payloadReader = objectMapper.readerFor(PurchaseEvent.class);
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkSinks() {
+        if (enabled && sinks.isEmpty()) {
+            log.warn("Outbox is enabled but no marketplace.outbox.sinks.* is enabled; events will accumulate");
+        }
+    }
+
+    // First run waits one interval, so a caller invoking dispatch() right after startup is not skipped by the lock
+    @Scheduled(fixedDelayString = "${marketplace.outbox.poll-interval-ms:200}",
+            initialDelayString = "${marketplace.outbox.poll-interval-ms:200}")
+    public void dispatch() {
+        if (!enabled || sinks.isEmpty() || !dispatchLock.tryLock()) {
+            return;
+        }
+        try {
+            // Keeps going while batches come back full, bounded so other scheduled tasks get their turn
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                Integer dispatched = transactionTemplate.execute(status -> dispatchBatch());
+                if (dispatched == null || dispatched < batchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Outbox dispatch failed", e);
+        } finally {
+            updateBacklog();
+            dispatchLock.unlock();
+        }
+    }
+
+    // Returns the number of events delivered, or -1 when a sink failed or pushed back
+    private int dispatchBatch() {
+        long now = System.currentTimeMillis();
+        List<OutboxEvent> due = outboxEventRepository.findDueForUpdate(new Timestamp(now), PageRequest.ofSize(batchSize));
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            publish(due);
+        } catch (OutboxBackpressureException e) {
+            meterRegistry.counter("marketplace.outbox.backpressure").increment();
+            return -1;
+        } catch (Exception e) {
+            meterRegistry.counter("marketplace.outbox.failures").increment();
+            if (due.size() == 1) {
+                retryOrDeadLetter(due, now, e);
+            } else {
+                log.warn("Outbox batch of {} events failed, retrying them one by one", due.size(), e);
+                dispatchOneByOne(due, now);
+            }
+            return -1;
+        }
+        delivered(due, now);
+        return due.size();
+    }
+
+    // Isolates the events that fail on their own, so a poison event does not hold back its batch-mates
+    private void dispatchOneByOne(List<OutboxEvent> due, long now) {
+        List<OutboxEvent> delivered = new ArrayList<>();
+        for (int i = 0; i < due.size(); i++) {
+            OutboxEvent row = due.get(i);
+            try {
+                publish(List.of(row));
+                delivered.add(row);
+            } catch (OutboxBackpressureException e) {
+                // The rest stay due as they are
+                meterRegistry.counter("marketplace.outbox.backpressure").increment();
+                break;
+            } catch (Exception e) {
+                if (i > 0 && delivered.isEmpty()) {
+                    // Nothing gets through at all: a sink outage rather than bad events, so stop calling the sinks
+                    retryOrDeadLetter(due.subList(i, due.size()), now, e);
+                    break;
+                }
+                retryOrDeadLetter(List.of(row), now, e);
+            }
+        }
+        if (!delivered.isEmpty()) {
+            delivered(delivered, now);
+        }
+    }
+
+    // An unreadable payload fails like a sink error
+    private void publish(List<OutboxEvent> rows) throws Exception {
+        List<PurchaseEvent> events = new ArrayList<>(rows.size());
+        for (OutboxEvent row : rows) {
+            PurchaseEvent event = payloadReader.readValue(row.getPayload());
+            event.setEventId(row.getId());
+            events.add(event);
+        }
+        for (PurchaseEventSink sink : sinks) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                sink.publish(events);
+            } finally {
+                sample.stop(meterRegistry.timer("marketplace.outbox.publish", "sink", sink.getName()));
+            }
+        }
+    }
+
+    private void delivered(List<OutboxEvent> rows, long now) {
+        List<Long> ids = rows.stream().map(OutboxEvent::getId).toList();
+        outboxEventRepository.deleteByIdIn(ids);
+        meterRegistry.counter("marketplace.outbox.dispatched").increment(ids.size());
+        Timer deliveryLag = meterRegistry.timer("marketplace.outbox.delivery.lag");
+        for (OutboxEvent row : rows) {
+            deliveryLag.record(now - row.getCreatedAt().getTime(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Events out of attempts move to outbox_dead_letter; the others wait out a backoff that grows with their attempts
+    private void retryOrDeadLetter(List<OutboxEvent> rows, long now, Exception error) {
+        List<Long> exhausted = new ArrayList<>();
+        Map<Integer, List<Long>> retriesByAttempt = new TreeMap<>();
+        for (OutboxEvent row : rows) {
+            int attempts = row.getAttempts() + 1;
+            if (attempts >= maxAttempts) {
+                exhausted.add(row.getId());
+            } else {
+                retriesByAttempt.computeIfAbsent(attempts, a -> new ArrayList<>()).add(row.getId());
+            }
+        }
+        retriesByAttempt.forEach((attempts, ids) -> {
+            Duration backoff = backoff(attempts);
+            outboxEventRepository.scheduleRetry(ids, new Timestamp(now + backoff.toMillis()));
+            log.warn("Outbox events {} failed (attempt {}), retrying in {}: {}", ids, attempts, backoff, error.toString());
+        });
+        if (!exhausted.isEmpty()) {
+            String lastError = error.toString();
+            outboxEventRepository.copyToDeadLetter(exhausted, new Timestamp(now),
+                    lastError.length() > MAX_ERROR_LENGTH ? lastError.substring(0, MAX_ERROR_LENGTH) : lastError);
+            outboxEventRepository.deleteByIdIn(exhausted);
+            meterRegistry.counter("marketplace.outbox.dead.lettered").increment(exhausted.size());
+            log.error("Outbox events {} failed {} times and were moved to outbox_dead_letter: {}", exhausted, maxAttempts, lastError);
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), MAX_BACKOFF_SHIFT));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private void updateBacklog() {
+        try {
+            pending.set(outboxEventRepository.count());
+            oldestPendingMillis.set(outboxEventRepository.findOldestCreatedAt().map(Timestamp::getTime).orElse(0L));
+            deadLetters.set(outboxEventRepository.countDeadLetters());
+        } catch (RuntimeException e) {
+            log.debug("Could not read outbox backlog", e);
+        }
+    }
+
+    // Lag is computed at scrape time, so it keeps growing while the dispatcher is stuck
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("marketplace.outbox.pending", pending, AtomicLong::get)
+                .description("Events waiting in the outbox")
+                .register(registry);
+        Gauge.builder("marketplace.outbox.lag", oldestPendingMillis,
+                        oldest -> oldest.get() == 0 ? 0 : (System.currentTimeMillis() - oldest.get()) / 1000.0)
+                .description("Age of the oldest event waiting in the outbox")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("marketplace.outbox.dead.letters", deadLetters, AtomicLong::get)
+                .description("Events moved to outbox_dead_letter after max-attempts failures")
+                .register(registry);
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.dto.PurchaseEvent;
+import com.example.AnycompMarketplaceApplication.entity.OutboxEvent;
+import com.example.AnycompMarketplaceApplication.entity.Purchase;
+import com.example.AnycompMarketplaceApplication.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+// Writes purchase.created events to the outbox; callers must be inside the transaction that saves the purchases
+@Component
+public class PurchaseEventOutbox {
+
+    static final String PURCHASE_CREATED = "purchase.created";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectWriter payloadWriter;
+    private final boolean enabled;
+
+    public PurchaseEventOutbox(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper,
+                               @Value("${marketplace.outbox.enabled:false}") boolean enabled) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.payloadWriter = objectMapper.writerFor(PurchaseEvent.class);
+        this.enabled = enabled;
+    }
+
+    public void record(Purchase purchase) {
+        recordAll(List.of(purchase));
+    }
+
+    public void recordAll(List<Purchase> purchases) {
+        if (!enabled || purchases.isEmpty()) {
+            return;
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<OutboxEvent> events = new ArrayList<>(purchases.size());
+        for (Purchase purchase : purchases) {
+            OutboxEvent event = new OutboxEvent();
+            event.setEventType(PURCHASE_CREATED);
+            event.setPayload(toPayload(purchase));
+            event.setCreatedAt(now);
+            event.setNextAttemptAt(now);
+            events.add(event);
+        }
+        outboxEventRepository.saveAll(events);
+    }
+
+    private String toPayload(Purchase purchase) {
+        PurchaseEvent event = new PurchaseEvent();
+        event.setPurchaseId(purchase.getId());
+        event.setBuyerId(purchase.getBuyer().getId());
+        event.setItemId(purchase.getItem().getId());
+        event.setSellerId(purchase.getItem().getSeller() != null ? purchase.getItem().getSeller().getId() : null);
+        event.setQuantity(purchase.getQuantity());
+        event.setUnitPrice(purchase.getUnitPrice());
+        event.setPurchaseDate(purchase.getPurchaseDate());
+        try {
+            return payloadWriter.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize purchase event", e);
+        }
+    }
+}
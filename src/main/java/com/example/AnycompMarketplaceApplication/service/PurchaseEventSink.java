@@ -0,0 +1,17 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.dto.PurchaseEvent;
+
+import java.util.List;
+
+/**
+ * Destination of purchase events drained from the outbox. Delivery is at-least-once: a batch is
+ * retried until every sink has accepted it, so a sink may see the same event (same eventId) again.
+ */
+public interface PurchaseEventSink {
+
+    String getName();
+
+    // Accepts the whole batch or throws; OutboxBackpressureException when it cannot take the batch right now
+    void publish(List<PurchaseEvent> events) throws Exception;
+}
@@ -0,0 +1,134 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.dto.FileFormat;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseResponse;
+import com.example.AnycompMarketplaceApplication.repository.PurchaseRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams purchases straight from a database cursor to an output stream, oldest first. Rows are
+ * written as they are fetched, so memory use does not depend on the size of the export.
+ */
+@Service
+@Timed("marketplace.service")
+public class PurchaseExportService {
+
+    // Both bounds are optional; the defaults cover every representable purchase date
+    private static final Instant MIN_DATE = Instant.parse("0001-01-01T00:00:00Z");
+    private static final Instant MAX_DATE = Instant.parse("9999-12-31T00:00:00Z");
+
+    private static final String CSV_HEADER = "purchaseId,buyerId,buyerName,itemId,itemName,quantity,purchaseDate";
+
+    private final PurchaseRepository purchaseRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter ndjsonWriter;
+
+    public PurchaseExportService(PurchaseRepository purchaseRepository, PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper) {
+        this.purchaseRepository = purchaseRepository;
+        this.readOnlyTransaction = ReplicaReads.transactionTemplate(transactionManager);
+        this.ndjsonWriter = objectMapper.writerFor(PurchaseResponse.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+    }
+
+    // Validates the range eagerly so the controller can reject it before the response is committed
+    public void checkRange(Instant from, Instant to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+    }
+
+    /**
+     * Writes purchases with {@code from <= purchaseDate < to} in the given format. PostgreSQL only
+     * streams a result set inside a transaction, so the whole export runs in one read-only transaction.
+     */
+    public long exportPurchases(Instant from, Instant to, FileFormat format, OutputStream out) {
+        checkRange(from, to);
+        Timestamp fromDate = Timestamp.from(from != null ? from : MIN_DATE);
+        Timestamp toDate = Timestamp.from(to != null ? to : MAX_DATE);
+
+        Long rows = readOnlyTransaction.execute(status -> {
+            try (Stream<PurchaseResponse> purchases = purchaseRepository.streamResponses(fromDate, toDate)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                long written = format == FileFormat.CSV
+                        ? writeCsv(purchases.iterator(), writer)
+                        : writeNdjson(purchases.iterator(), writer);
+                writer.flush();
+                return written;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Purchase export aborted", e);
+            }
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private long writeNdjson(Iterator<PurchaseResponse> purchases, Writer writer) throws IOException {
+        long rows = 0;
+        try (SequenceWriter sequence = ndjsonWriter.writeValues(writer)) {
+            while (purchases.hasNext()) {
+                sequence.write(purchases.next());
+                rows++;
+            }
+        }
+        if (rows > 0) {
+            writer.write('\n');
+        }
+        return rows;
+    }
+
+    private long writeCsv(Iterator<PurchaseResponse> purchases, Writer writer) throws IOException {
+        long rows = 0;
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (purchases.hasNext()) {
+            PurchaseResponse purchase = purchases.next();
+            writer.write(String.valueOf(purchase.getPurchaseId()));
+            writer.write(',');
+            writer.write(String.valueOf(purchase.getBuyerId()));
+            writer.write(',');
+            writer.write(csvField(purchase.getBuyerName()));
+            writer.write(',');
+            writer.write(String.valueOf(purchase.getItemId()));
+            writer.write(',');
+            writer.write(csvField(purchase.getItemName()));
+            writer.write(',');
+            writer.write(String.valueOf(purchase.getQuantity()));
+            writer.write(',');
+            writer.write(purchase.getPurchaseDate() != null ? purchase.getPurchaseDate().toInstant().toString() : "");
+            writer.write('\n');
+            rows++;
+        }
+        return rows;
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks, doubling embedded quotes
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
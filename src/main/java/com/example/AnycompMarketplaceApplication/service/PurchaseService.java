@@ -1,85 +1,329 @@
 package com.example.AnycompMarketplaceApplication.service;
 
+import com.example.AnycompMarketplaceApplication.dto.CursorPage;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseBatchLineResult;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseBatchResponse;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseRequest;
 import com.example.AnycompMarketplaceApplication.dto.PurchaseResponse;
 import com.example.AnycompMarketplaceApplication.entity.Buyer;
+import com.example.AnycompMarketplaceApplication.entity.IdempotencyRecord;
 import com.example.AnycompMarketplaceApplication.entity.Item;
 import com.example.AnycompMarketplaceApplication.entity.Purchase;
 import com.example.AnycompMarketplaceApplication.repository.BuyerRepository;
+import com.example.AnycompMarketplaceApplication.repository.IdempotencyRecordRepository;
 import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
 import com.example.AnycompMarketplaceApplication.repository.PurchaseRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
+@Timed("marketplace.service")
 public class PurchaseService {
 
+    private static final int MAX_BATCH_LINES = 1000;
+
+    private static final String REJECTED_INVALID_LINE = "invalid_line";
+    private static final String REJECTED_INVALID_QUANTITY = "invalid_quantity";
+    private static final String REJECTED_BUYER_NOT_FOUND = "buyer_not_found";
+    private static final String REJECTED_ITEM_NOT_FOUND = "item_not_found";
+    private static final String REJECTED_INSUFFICIENT_STOCK = "insufficient_stock";
+
     private final PurchaseRepository purchaseRepository;
     private final ItemRepository itemRepository;
     private final BuyerRepository buyerRepository;
+    private final InventoryLedger inventoryLedger;
+    private final IdempotencyStore idempotencyStore;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final PurchaseEventOutbox purchaseEventOutbox;
+    private final ItemSalesService itemSalesService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate replicaReads;
+    private final MeterRegistry meterRegistry;
 
-    public PurchaseService(PurchaseRepository purchaseRepository, ItemRepository itemRepository, BuyerRepository buyerRepository) {
+    public PurchaseService(PurchaseRepository purchaseRepository, ItemRepository itemRepository, BuyerRepository buyerRepository,
+                           InventoryLedger inventoryLedger, IdempotencyStore idempotencyStore,
+                           IdempotencyRecordRepository idempotencyRecordRepository, PurchaseEventOutbox purchaseEventOutbox,
+                           ItemSalesService itemSalesService, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
         this.purchaseRepository = purchaseRepository;
         this.itemRepository = itemRepository;
         this.buyerRepository = buyerRepository;
+        this.inventoryLedger = inventoryLedger;
+        this.idempotencyStore = idempotencyStore;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.purchaseEventOutbox = purchaseEventOutbox;
+        this.itemSalesService = itemSalesService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.replicaReads = ReplicaReads.transactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
     }
 
+    @Timed(value = "marketplace.purchase.create", histogram = true)
     public PurchaseResponse createPurchase(Long buyerId, Long itemId, int quantity) {
-        Buyer buyer = buyerRepository.findById(buyerId)
-                .orElseThrow(() -> new IllegalArgumentException("Buyer not found with ID: " + buyerId));
+        return executePurchase(buyerId, itemId, quantity, null);
+    }
 
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new IllegalArgumentException("Item not found with ID: " + itemId));
+    // Replays of an idempotency key (scoped to the caller) return the original purchase without touching stock
+    @Timed(value = "marketplace.purchase.create", histogram = true)
+    public PurchaseResponse createPurchase(Long buyerId, Long itemId, int quantity, String owner, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return executePurchase(buyerId, itemId, quantity, null);
+        }
+        String fingerprint = buyerId + ":" + itemId + ":" + quantity;
+        return idempotencyStore.execute(owner, idempotencyKey, fingerprint,
+                record -> executePurchase(buyerId, itemId, quantity, record));
+    }
 
+    private PurchaseResponse executePurchase(Long buyerId, Long itemId, int quantity, IdempotencyRecord idempotencyRecord) {
         if (quantity <= 0) {
-            throw new IllegalArgumentException("Quantity must be greater than zero");
+            throw rejected(REJECTED_INVALID_QUANTITY, "Quantity must be greater than zero");
+        }
+
+        return inventoryLedger.route(itemId,
+                () -> transactionTemplate.execute(status ->
+                        claim(idempotencyRecord, () -> createLedgerPurchase(buyerId, itemId, quantity))),
+                () -> transactionTemplate.execute(status ->
+                        claim(idempotencyRecord, () -> createDatabasePurchase(buyerId, itemId, quantity))));
+    }
+
+    // The key is inserted before stock is touched, so a duplicate on another node waits on it
+    private PurchaseResponse claim(IdempotencyRecord idempotencyRecord, Supplier<PurchaseResponse> purchase) {
+        if (idempotencyRecord == null) {
+            return purchase.get();
+        }
+        IdempotencyRecord claimed = idempotencyRecordRepository.saveAndFlush(idempotencyRecord);
+        PurchaseResponse response = purchase.get();
+        claimed.setPurchaseId(response.getPurchaseId());
+        return response;
+    }
+
+    private PurchaseResponse createDatabasePurchase(Long buyerId, Long itemId, int quantity) {
+        Buyer buyer = buyerRepository.findById(buyerId)
+                .orElseThrow(() -> rejected(REJECTED_BUYER_NOT_FOUND, "Buyer not found with ID: " + buyerId));
+
+        // Reserve stock atomically in the database instead of read-check-write in Java
+        if (itemRepository.decrementStock(itemId, quantity) == 0) {
+            int available = itemRepository.findQuantityById(itemId)
+                    .orElseThrow(() -> rejected(REJECTED_ITEM_NOT_FOUND, "Item not found with ID: " + itemId));
+            throw rejected(REJECTED_INSUFFICIENT_STOCK, "Insufficient item quantity. Available: " + available);
         }
 
-        if (item.getQuantity() < quantity) {
-            throw new IllegalArgumentException("Insufficient item quantity. Available: " + item.getQuantity());
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> rejected(REJECTED_ITEM_NOT_FOUND, "Item not found with ID: " + itemId));
+
+        return savePurchase(buyer, item, quantity, false);
+    }
+
+    // Hot items reserve stock in memory; Item.quantity is updated later by the ledger flush
+    private PurchaseResponse createLedgerPurchase(Long buyerId, Long itemId, int quantity) {
+        Buyer buyer = buyerRepository.findById(buyerId)
+                .orElseThrow(() -> rejected(REJECTED_BUYER_NOT_FOUND, "Buyer not found with ID: " + buyerId));
+
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> rejected(REJECTED_ITEM_NOT_FOUND, "Item not found with ID: " + itemId));
+
+        if (!inventoryLedger.tryReserve(itemId, quantity)) {
+            throw rejected(REJECTED_INSUFFICIENT_STOCK, "Insufficient item quantity. Available: " + inventoryLedger.getAvailable(itemId));
         }
 
-        // Reduce item stock
-        item.setQuantity(item.getQuantity() - quantity);
-        itemRepository.save(item);
+        return savePurchase(buyer, item, quantity, true);
+    }
 
+    private PurchaseResponse savePurchase(Buyer buyer, Item item, int quantity, boolean stockPending) {
         // Create and save purchase
         Purchase purchase = new Purchase();
         purchase.setBuyer(buyer);
         purchase.setItem(item);
         purchase.setQuantity(quantity);
         purchase.setPurchaseDate(new Timestamp(System.currentTimeMillis()));
+        purchase.setUnitPrice(item.getPrice());
+        purchase.setStockPending(stockPending);
 
         Purchase savedPurchase = purchaseRepository.save(purchase);
+        itemSalesService.recordPurchases(List.of(savedPurchase));
+        purchaseEventOutbox.record(savedPurchase);
+        return toResponse(savedPurchase);
+    }
 
-        // Map to PurchaseResponse
-        PurchaseResponse response = new PurchaseResponse();
-        response.setPurchaseId(savedPurchase.getId());
-        response.setBuyerId(buyer.getId());
-        response.setBuyerName(buyer.getName());
-        response.setItemId(item.getId());
-        response.setItemName(item.getName());
-        response.setQuantity(savedPurchase.getQuantity());
-        response.setPurchaseDate(savedPurchase.getPurchaseDate());
+    /**
+     * Creates one purchase per line in a single transaction: buyers and items are loaded with one query
+     * each, item rows are locked once and decremented once per item, and the purchase rows are inserted
+     * as a JDBC batch. In atomic mode any rejected line rolls back the whole batch.
+     */
+    public PurchaseBatchResponse createPurchases(List<PurchaseRequest> lines, boolean atomic) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one line");
+        }
+        if (lines.size() > MAX_BATCH_LINES) {
+            throw new IllegalArgumentException("Batch must not contain more than " + MAX_BATCH_LINES + " lines");
+        }
+
+        Set<Long> itemIds = lines.stream()
+                .filter(Objects::nonNull)
+                .map(PurchaseRequest::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        return inventoryLedger.routeAll(itemIds, () -> transactionTemplate.execute(status -> {
+            PurchaseBatchResponse response = createPurchaseBatch(lines, itemIds, atomic);
+            if (atomic && response.getRejected() > 0) {
+                status.setRollbackOnly();
+            }
+            return response;
+        }));
+    }
+
+    private PurchaseBatchResponse createPurchaseBatch(List<PurchaseRequest> lines, Set<Long> itemIds, boolean atomic) {
+        Set<Long> buyerIds = lines.stream()
+                .filter(Objects::nonNull)
+                .map(PurchaseRequest::getBuyerId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Buyer> buyers = buyerRepository.findAllById(buyerIds).stream()
+                .collect(Collectors.toMap(Buyer::getId, Function.identity()));
+
+        // Hot items are reserved in the ledger, all others are locked and decremented here
+        List<Long> hotItemIds = itemIds.stream().filter(inventoryLedger::isHot).toList();
+        List<Long> lockedItemIds = itemIds.stream().filter(id -> !inventoryLedger.isHot(id)).toList();
+        Map<Long, Item> items = new HashMap<>();
+        Map<Long, Integer> remaining = new HashMap<>();
+        if (!lockedItemIds.isEmpty()) {
+            for (Item item : itemRepository.findAllForUpdateByIdIn(lockedItemIds)) {
+                items.put(item.getId(), item);
+                remaining.put(item.getId(), item.getQuantity());
+            }
+        }
+        itemRepository.findAllById(hotItemIds).forEach(item -> items.put(item.getId(), item));
+
+        List<PurchaseBatchLineResult> results = new ArrayList<>(lines.size());
+        List<Purchase> purchases = new ArrayList<>(lines.size());
+        Timestamp purchaseDate = new Timestamp(System.currentTimeMillis());
+        int rejected = 0;
+
+        for (int i = 0; i < lines.size(); i++) {
+            PurchaseRequest line = lines.get(i);
+            PurchaseBatchLineResult result = new PurchaseBatchLineResult();
+            result.setLine(i);
+            results.add(result);
+            if (line == null || line.getBuyerId() == null || line.getItemId() == null) {
+                result.setError(rejectedLine(REJECTED_INVALID_LINE, "Line must have a buyerId and an itemId"));
+                rejected++;
+                continue;
+            }
+
+            Buyer buyer = buyers.get(line.getBuyerId());
+            Item item = items.get(line.getItemId());
+            int quantity = line.getQuantity();
+            if (quantity <= 0) {
+                result.setError(rejectedLine(REJECTED_INVALID_QUANTITY, "Quantity must be greater than zero"));
+            } else if (buyer == null) {
+                result.setError(rejectedLine(REJECTED_BUYER_NOT_FOUND, "Buyer not found with ID: " + line.getBuyerId()));
+            } else if (item == null) {
+                result.setError(rejectedLine(REJECTED_ITEM_NOT_FOUND, "Item not found with ID: " + line.getItemId()));
+            } else if (remaining.containsKey(item.getId())) {
+                int available = remaining.get(item.getId());
+                if (available < quantity) {
+                    result.setError(rejectedLine(REJECTED_INSUFFICIENT_STOCK, "Insufficient item quantity. Available: " + available));
+                } else {
+                    remaining.put(item.getId(), available - quantity);
+                }
+            } else if (!inventoryLedger.tryReserve(item.getId(), quantity)) {
+                result.setError(rejectedLine(REJECTED_INSUFFICIENT_STOCK,
+                        "Insufficient item quantity. Available: " + inventoryLedger.getAvailable(item.getId())));
+            }
 
+            if (result.getError() != null) {
+                rejected++;
+                continue;
+            }
+            Purchase purchase = new Purchase();
+            purchase.setBuyer(buyer);
+            purchase.setItem(item);
+            purchase.setQuantity(quantity);
+            purchase.setPurchaseDate(purchaseDate);
+            purchase.setUnitPrice(item.getPrice());
+            purchase.setStockPending(!remaining.containsKey(item.getId()));
+            purchases.add(purchase);
+        }
+
+        PurchaseBatchResponse response = new PurchaseBatchResponse();
+        response.setResults(results);
+        if (atomic && rejected > 0) {
+            results.stream()
+                    .filter(result -> result.getError() == null)
+                    .forEach(result -> result.setError("Batch rejected because another line failed"));
+            response.setRejected(lines.size());
+            return response;
+        }
+
+        // One stock UPDATE per locked item, one batched INSERT for all purchases
+        remaining.forEach(itemRepository::setStock);
+        List<Purchase> savedPurchases = purchaseRepository.saveAll(purchases);
+        itemSalesService.recordPurchases(savedPurchases);
+        purchaseEventOutbox.recordAll(savedPurchases);
+
+        int saved = 0;
+        for (PurchaseBatchLineResult result : results) {
+            if (result.getError() == null) {
+                result.setPurchase(toResponse(savedPurchases.get(saved++)));
+            }
+        }
+        response.setAccepted(saved);
+        response.setRejected(rejected);
+        return response;
+    }
+
+    // Rejections are counted under marketplace.purchase.rejected{reason}
+    private IllegalArgumentException rejected(String reason, String message) {
+        return new IllegalArgumentException(rejectedLine(reason, message));
+    }
+
+    private String rejectedLine(String reason, String message) {
+        meterRegistry.counter("marketplace.purchase.rejected", "reason", reason).increment();
+        return message;
+    }
+
+    private PurchaseResponse toResponse(Purchase purchase) {
+        PurchaseResponse response = new PurchaseResponse();
+        response.setPurchaseId(purchase.getId());
+        response.setBuyerId(purchase.getBuyer().getId());
+        response.setBuyerName(purchase.getBuyer().getName());
+        response.setItemId(purchase.getItem().getId());
+        response.setItemName(purchase.getItem().getName());
+        response.setQuantity(purchase.getQuantity());
+        response.setPurchaseDate(purchase.getPurchaseDate());
         return response;
     }
 
     // Pagination method for purchases
     public Page<PurchaseResponse> getAllPurchases(Pageable pageable) {
-        return purchaseRepository.findAll(pageable)
-                .map(purchase -> {
-                    PurchaseResponse response = new PurchaseResponse();
-                    response.setPurchaseId(purchase.getId());
-                    response.setBuyerId(purchase.getBuyer().getId());
-                    response.setBuyerName(purchase.getBuyer().getName());
-                    response.setItemId(purchase.getItem().getId());
-                    response.setItemName(purchase.getItem().getName());
-                    response.setQuantity(purchase.getQuantity());
-                    response.setPurchaseDate(purchase.getPurchaseDate());
-                    return response;
-                });
+        return replicaReads.execute(status -> purchaseRepository.findAllResponses(pageable));
+    }
+
+    // Keyset pagination for purchases, newest first
+    public CursorPage<PurchaseResponse> getPurchasesAfter(String after, Integer size) {
+        Pageable limit = KeysetCursor.limit(size);
+        KeysetCursor.DateAndId cursor = after == null ? null : KeysetCursor.decodeDateAndId(after);
+        Slice<PurchaseResponse> slice = replicaReads.execute(status -> cursor == null
+                ? purchaseRepository.findFirstResponses(limit)
+                : purchaseRepository.findResponsesAfter(cursor.date(), cursor.id(), limit));
+        return CursorPage.of(slice, purchase -> KeysetCursor.encodeDateAndId(purchase.getPurchaseDate(), purchase.getPurchaseId()));
     }
 }
@@ -0,0 +1,106 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process token buckets, one per limit and key (principal, client address or buyer).
+ *
+ * <p>Each bucket is a single {@link AtomicLong} holding the time at which it will be full again
+ * (the GCRA form of a token bucket), updated with a CAS loop, so acquiring never blocks. Buckets
+ * live in a bounded Caffeine map and are dropped after {@code idle-timeout} without requests; a
+ * dropped bucket comes back full, which is what it would have refilled to anyway.
+ */
+@Component
+public class RateLimiter implements MeterBinder {
+
+    private final Cache<String, AtomicLong> buckets;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Limit buyerPurchases;
+
+    public RateLimiter(MeterRegistry meterRegistry,
+                       @Value("${marketplace.rate-limit.enabled:false}") boolean enabled,
+                       @Value("${marketplace.rate-limit.max-buckets:100000}") long maxBuckets,
+                       @Value("${marketplace.rate-limit.idle-timeout:10m}") Duration idleTimeout,
+                       @Value("${marketplace.rate-limit.buyer-purchases.capacity:10}") long buyerCapacity,
+                       @Value("${marketplace.rate-limit.buyer-purchases.per-second:2}") double buyerPerSecond) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleTimeout)
+                .build();
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.buyerPurchases = new Limit("buyer-purchases", buyerCapacity, buyerPerSecond);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes {@code permits} tokens from the bucket of {@code key} under {@code limit}. Returns zero if
+     * they were taken, otherwise how long the caller should wait; a rejected request takes nothing.
+     */
+    public Duration tryAcquire(Limit limit, String key, int permits) {
+        if (!enabled || limit.isUnlimited()) {
+            return Duration.ZERO;
+        }
+        AtomicLong fullAt = buckets.get(limit.name() + ":" + key, k -> new AtomicLong(Long.MIN_VALUE));
+        // A request larger than the bucket could never pass; it may drain a full bucket instead
+        long cost = limit.intervalNanos() * Math.min(permits, limit.capacity());
+        long now = System.nanoTime();
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + cost;
+            long wait = next - now - limit.burstNanos();
+            if (wait > 0) {
+                meterRegistry.counter("marketplace.ratelimit.throttled", "limit", limit.name()).increment();
+                return Duration.ofNanos(wait);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    // Purchases of one buyer, whichever principal sends them
+    public Duration tryAcquireForBuyer(Long buyerId, int purchases) {
+        return tryAcquire(buyerPurchases, String.valueOf(buyerId), purchases);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("marketplace.ratelimit.buckets", buckets, Cache::estimatedSize)
+                .description("Token buckets currently held in memory")
+                .register(registry);
+    }
+
+    /**
+     * {@code capacity} requests may be made at once, refilled at {@code perSecond}; a capacity or rate
+     * of zero or less disables the limit.
+     */
+    public record Limit(String name, long capacity, double perSecond) {
+
+        boolean isUnlimited() {
+            return capacity <= 0 || perSecond <= 0;
+        }
+
+        long intervalNanos() {
+            return (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+        }
+
+        long burstNanos() {
+            return intervalNanos() * capacity;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Read-only transactions that may be served by the read replica, when one is configured.
+ *
+ * <p>Only transactions started from these templates are routed; other read-only transactions,
+ * including the ones Spring Data opens around repository reads, stay on the primary. That keeps
+ * read-after-write paths such as cache refills, search reindexing and idempotency lookups off a
+ * lagging replica. A template joined from inside a read-write transaction also stays on the primary.
+ *
+ * <p>These transactions read the second-level cache but never fill it, so a row that is behind on
+ * the replica cannot outlive the lag in the cache.
+ */
+public final class ReplicaReads {
+
+    private static final String TRANSACTION_NAME = "marketplace-replica-read";
+
+    private ReplicaReads() {
+    }
+
+    public static TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new ReplicaReadTemplate(transactionManager);
+        template.setReadOnly(true);
+        template.setName(TRANSACTION_NAME);
+        return template;
+    }
+
+    // True inside a transaction started by transactionTemplate(...)
+    public static boolean isActive() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && TRANSACTION_NAME.equals(TransactionSynchronizationManager.getCurrentTransactionName());
+    }
+
+    private static final class ReplicaReadTemplate extends TransactionTemplate {
+
+        private ReplicaReadTemplate(PlatformTransactionManager transactionManager) {
+            super(transactionManager);
+        }
+
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            return super.execute(status -> {
+                if (status.isNewTransaction() && getTransactionManager() instanceof JpaTransactionManager jpa) {
+                    EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(jpa.getEntityManagerFactory());
+                    if (entityManager != null) {
+                        // A session-level CacheMode would be overridden per find(); the JPA property is not
+                        entityManager.setProperty("jakarta.persistence.cache.storeMode", CacheStoreMode.BYPASS);
+                    }
+                }
+                return action.doInTransaction(status);
+            });
+        }
+    }
+}
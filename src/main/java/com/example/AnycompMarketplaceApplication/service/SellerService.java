@@ -1,41 +1,152 @@
 package com.example.AnycompMarketplaceApplication.service;
 
+import com.example.AnycompMarketplaceApplication.dto.CursorPage;
+import com.example.AnycompMarketplaceApplication.dto.ItemResponseDTO;
+import com.example.AnycompMarketplaceApplication.dto.SellerResponseDTO;
 import com.example.AnycompMarketplaceApplication.entity.Seller;
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
 import com.example.AnycompMarketplaceApplication.repository.SellerRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 @Service
+@Timed("marketplace.service")
 public class SellerService {
 
+    public static final int MAX_EXPANDED_ITEMS = 20;
+
+    private static final String EXPAND_ITEMS = "items";
+
     private final SellerRepository sellerRepository;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate replicaReads;
 
-    public SellerService(SellerRepository sellerRepository) {
+    public SellerService(SellerRepository sellerRepository, ItemRepository itemRepository,
+                         PlatformTransactionManager transactionManager) {
         this.sellerRepository = sellerRepository;
+        this.itemRepository = itemRepository;
+        this.replicaReads = ReplicaReads.transactionTemplate(transactionManager);
+    }
+
+    // Convert Entity to DTO; items are only filled in by expandItems
+    private SellerResponseDTO convertToDTO(Seller seller) {
+        SellerResponseDTO dto = new SellerResponseDTO();
+        dto.setId(seller.getId());
+        dto.setName(seller.getName());
+        dto.setEmail(seller.getEmail());
+        dto.setVersion(seller.getVersion());
+        return dto;
+    }
+
+    public Page<SellerResponseDTO> getAllSellers(Pageable pageable, String expand) {
+        boolean withItems = expandsItems(expand);
+        return replicaReads.execute(status -> {
+            Page<SellerResponseDTO> page = sellerRepository.findAll(pageable).map(this::convertToDTO);
+            if (withItems) {
+                expandItems(page.getContent());
+            }
+            return page;
+        });
+    }
+
+    public CursorPage<SellerResponseDTO> getSellersAfter(String after, Integer size, String expand) {
+        boolean withItems = expandsItems(expand);
+        Long afterId = after == null ? Long.MIN_VALUE : KeysetCursor.decodeId(after);
+        Pageable limit = KeysetCursor.limit(size);
+        return replicaReads.execute(status -> {
+            Slice<SellerResponseDTO> slice = sellerRepository.findByIdGreaterThanOrderByIdAsc(afterId, limit)
+                    .map(this::convertToDTO);
+            if (withItems) {
+                expandItems(slice.getContent());
+            }
+            return CursorPage.of(slice, seller -> KeysetCursor.encodeId(seller.getId()));
+        });
     }
 
-    public Page<Seller> getAllSellers(Pageable pageable) {
-        return sellerRepository.findAll(pageable);
+    public Optional<SellerResponseDTO> getSellerById(Long id, String expand) {
+        boolean withItems = expandsItems(expand);
+        return replicaReads.execute(status -> {
+            Optional<SellerResponseDTO> seller = sellerRepository.findById(id).map(this::convertToDTO);
+            if (withItems) {
+                seller.ifPresent(dto -> expandItems(List.of(dto)));
+            }
+            return seller;
+        });
     }
 
-    public Optional<Seller> getSellerById(Long id) {
-        return sellerRepository.findById(id);
+    // Lets a conditional GET be answered without loading the seller
+    public Optional<Long> getSellerVersion(Long id) {
+        return replicaReads.execute(status -> sellerRepository.findVersionById(id));
     }
 
-    public Seller createSeller(Seller seller) {
-        return sellerRepository.save(seller);
+    public boolean existsById(Long id) {
+        return sellerRepository.existsById(id);
     }
 
-    public Seller updateSeller(Long id, Seller seller) {
-        seller.setId(id);
-        return sellerRepository.save(seller);
+    public SellerResponseDTO createSeller(Seller seller) {
+        return convertToDTO(sellerRepository.save(seller));
+    }
+
+    // Copies the editable fields onto the stored seller, so the request body never carries a stale version
+    public SellerResponseDTO updateSeller(Long id, Seller seller) {
+        Seller existing = sellerRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Seller not found with ID: " + id));
+
+        existing.setName(seller.getName());
+        existing.setEmail(seller.getEmail());
+
+        return convertToDTO(sellerRepository.save(existing));
     }
 
     public void deleteSeller(Long id) {
         sellerRepository.deleteById(id);
     }
+
+    private boolean expandsItems(String expand) {
+        if (expand == null || expand.isBlank()) {
+            return false;
+        }
+        if (!EXPAND_ITEMS.equals(expand)) {
+            throw new IllegalArgumentException("Unsupported expand: " + expand);
+        }
+        return true;
+    }
+
+    // One query for the whole page, capped per seller; one extra row per seller tells whether more exist
+    private void expandItems(List<SellerResponseDTO> sellers) {
+        if (sellers.isEmpty()) {
+            return;
+        }
+        Map<Long, SellerResponseDTO> byId = new HashMap<>();
+        for (SellerResponseDTO seller : sellers) {
+            seller.setItems(new ArrayList<>());
+            seller.setHasMoreItems(false);
+            byId.put(seller.getId(), seller);
+        }
+        for (ItemRepository.SellerItem row : itemRepository.findFirstItemsBySellerIdIn(byId.keySet(), MAX_EXPANDED_ITEMS + 1)) {
+            SellerResponseDTO seller = byId.get(row.getSellerId());
+            if (seller.getItems().size() == MAX_EXPANDED_ITEMS) {
+                seller.setHasMoreItems(true);
+                continue;
+            }
+            ItemResponseDTO item = new ItemResponseDTO();
+            item.setId(row.getId());
+            item.setName(row.getName());
+            item.setPrice(row.getPrice());
+            item.setSellerId(row.getSellerId());
+            seller.getItems().add(item);
+        }
+    }
 }
@@ -0,0 +1,154 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.dto.TokenResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Issues and verifies HS256 JSON Web Tokens signed with {@code marketplace.security.token.secret},
+ * so any node holding the secret can authenticate a request without a session.
+ *
+ * <p>Verified tokens are cached until they expire, so a client reusing its token costs one map
+ * lookup instead of an HMAC and a JSON parse per request. Tokens cannot be revoked before they
+ * expire; keep {@code ttl} short.
+ */
+@Service
+public class TokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String HEADER = encode("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final ObjectMapper objectMapper;
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Cache<String, VerifiedToken> verified;
+
+    public TokenService(ObjectMapper objectMapper,
+                        @Value("${marketplace.security.token.secret:}") String secret,
+                        @Value("${marketplace.security.token.ttl:1h}") Duration ttl,
+                        @Value("${marketplace.security.token.cache-size:100000}") long cacheSize) {
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length > 0 && secretBytes.length < 32) {
+            throw new IllegalStateException("marketplace.security.token.secret must be at least 32 bytes");
+        }
+        this.objectMapper = objectMapper;
+        this.key = secretBytes.length > 0 ? new SecretKeySpec(secretBytes, ALGORITHM) : null;
+        this.ttl = ttl;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return key != null;
+    }
+
+    // Roles without the ROLE_ prefix, e.g. BUYER
+    public TokenResponse issue(String subject, Collection<String> roles) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Token authentication is not configured");
+        }
+        Instant now = Instant.now();
+        ObjectNode claims = objectMapper.createObjectNode()
+                .put("sub", subject)
+                .put("iat", now.getEpochSecond())
+                .put("exp", now.plus(ttl).getEpochSecond());
+        roles.forEach(claims.putArray("roles")::add);
+
+        String unsigned;
+        try {
+            unsigned = HEADER + "." + encode(objectMapper.writeValueAsBytes(claims));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return new TokenResponse(unsigned + "." + encode(sign(unsigned)), "Bearer", ttl.toSeconds());
+    }
+
+    /**
+     * Returns the authentication carried by a token, or throws {@link IllegalArgumentException} if the
+     * token is malformed, not signed with our secret or expired.
+     */
+    public Authentication verify(String token) {
+        if (!isEnabled()) {
+            throw new IllegalArgumentException("Token authentication is not configured");
+        }
+        long now = Instant.now().getEpochSecond();
+        VerifiedToken cached = verified.getIfPresent(token);
+        if (cached == null) {
+            cached = parse(token);
+            verified.put(token, cached);
+        }
+        if (cached.expiresAt() <= now) {
+            verified.invalidate(token);
+            throw new IllegalArgumentException("Token expired");
+        }
+        return cached.authentication();
+    }
+
+    private VerifiedToken parse(String token) {
+        String[] parts = token.split("\\.", -1);
+        if (parts.length != 3 || !HEADER.equals(parts[0])) {
+            throw new IllegalArgumentException("Malformed token");
+        }
+        byte[] signature;
+        JsonNode claims;
+        try {
+            signature = Base64.getUrlDecoder().decode(parts[2]);
+            claims = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+        } catch (IllegalArgumentException | IOException e) {
+            throw new IllegalArgumentException("Malformed token");
+        }
+        if (!MessageDigest.isEqual(signature, sign(parts[0] + "." + parts[1]))) {
+            throw new IllegalArgumentException("Invalid token signature");
+        }
+        if (claims == null || !claims.path("sub").isTextual() || !claims.path("exp").canConvertToLong()) {
+            throw new IllegalArgumentException("Malformed token");
+        }
+
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        claims.path("roles").forEach(role -> authorities.add(new SimpleGrantedAuthority("ROLE_" + role.asText())));
+        Authentication authentication =
+                UsernamePasswordAuthenticationToken.authenticated(claims.get("sub").asText(), null, authorities);
+        return new VerifiedToken(authentication, claims.get("exp").asLong());
+    }
+
+    private byte[] sign(String unsigned) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(unsigned.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private record VerifiedToken(Authentication authentication, long expiresAt) {
+    }
+}
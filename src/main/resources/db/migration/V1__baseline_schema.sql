@@ -0,0 +1,82 @@
+-- Schema as created by spring.jpa.hibernate.ddl-auto=update before migrations were introduced.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+create sequence purchase_seq start with 1 increment by 50;
+create sequence outbox_event_seq start with 1 increment by 50;
+
+create table seller (
+    id bigint generated by default as identity,
+    name varchar(255),
+    email varchar(255),
+    version bigint default 0 not null,
+    primary key (id)
+);
+
+create table buyer (
+    id bigint generated by default as identity,
+    name varchar(255),
+    email varchar(255),
+    primary key (id)
+);
+
+create table item (
+    id bigint generated by default as identity,
+    name varchar(255),
+    description varchar(255),
+    price float(53) not null,
+    quantity integer not null,
+    version bigint default 0 not null,
+    seller_id bigint,
+    primary key (id),
+    constraint fk_item_seller foreign key (seller_id) references seller (id)
+);
+
+create table purchase (
+    id bigint not null,
+    buyer_id bigint,
+    item_id bigint,
+    quantity integer not null,
+    purchase_date timestamp(6),
+    unit_price float(53),
+    stock_pending boolean default false not null,
+    primary key (id),
+    constraint fk_purchase_buyer foreign key (buyer_id) references buyer (id),
+    constraint fk_purchase_item foreign key (item_id) references item (id)
+);
+
+create index idx_purchase_date_id on purchase (purchase_date, id);
+create index idx_purchase_buyer_date_id on purchase (buyer_id, purchase_date, id);
+
+create table item_sales_daily (
+    item_id bigint not null,
+    sales_date date not null,
+    seller_id bigint,
+    units bigint not null,
+    revenue float(53) not null,
+    purchases bigint not null,
+    primary key (sales_date, item_id)
+);
+
+create index idx_item_sales_daily_seller_date on item_sales_daily (seller_id, sales_date);
+
+create table idempotency_record (
+    id varchar(512) not null,
+    request_fingerprint varchar(255) not null,
+    purchase_id bigint,
+    created_at timestamp(6) not null,
+    primary key (id)
+);
+
+create index idx_idempotency_record_created_at on idempotency_record (created_at);
+
+create table outbox_event (
+    id bigint not null,
+    event_type varchar(255) not null,
+    payload varchar(2000) not null,
+    created_at timestamp(6) not null,
+    next_attempt_at timestamp(6) not null,
+    attempts integer default 0 not null,
+    primary key (id)
+);
+
+create index idx_outbox_event_next_attempt on outbox_event (next_attempt_at, id);
@@ -0,0 +1,12 @@
+-- Indexes for queries that ddl-auto never created: PostgreSQL does not index foreign keys itself.
+-- On a large existing database, create them by hand with CREATE INDEX CONCURRENTLY before deploying;
+-- "if not exists" then makes this migration a no-op.
+
+-- Seller item pages (GET /items/sellers/{id}), seller keyset scans, first items per seller and the item streams
+create index if not exists idx_item_seller_id on item (seller_id, id);
+
+-- Pending-stock lookups of the inventory ledger and the per-item-range sales rebuild
+create index if not exists idx_purchase_item_pending on purchase (item_id, stock_pending);
+
+-- Sales of one item over a date range (GET /items/{id}/sales); the primary key leads with the date
+create index if not exists idx_item_sales_daily_item_date on item_sales_daily (item_id, sales_date);
@@ -0,0 +1,12 @@
+-- Outbox events that failed marketplace.outbox.retry.max-attempts times, moved aside so they stop
+-- holding back the outbox. To replay one, insert it back into outbox_event with attempts = 0.
+create table outbox_dead_letter (
+    id bigint not null,
+    event_type varchar(255) not null,
+    payload varchar(2000) not null,
+    created_at timestamp(6) not null,
+    attempts integer not null,
+    failed_at timestamp(6) not null,
+    last_error varchar(1000),
+    primary key (id)
+);
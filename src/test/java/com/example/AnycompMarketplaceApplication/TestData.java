@@ -0,0 +1,58 @@
+package com.example.AnycompMarketplaceApplication;
+
+import com.example.AnycompMarketplaceApplication.entity.Buyer;
+import com.example.AnycompMarketplaceApplication.entity.Item;
+import com.example.AnycompMarketplaceApplication.entity.Seller;
+import com.example.AnycompMarketplaceApplication.repository.BuyerRepository;
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
+import com.example.AnycompMarketplaceApplication.repository.SellerRepository;
+import org.springframework.stereotype.Component;
+
+// Shared fixtures for the Spring Boot tests; each call inserts fresh rows and returns their id
+@Component
+public class TestData {
+
+    private final SellerRepository sellerRepository;
+    private final ItemRepository itemRepository;
+    private final BuyerRepository buyerRepository;
+
+    public TestData(SellerRepository sellerRepository, ItemRepository itemRepository, BuyerRepository buyerRepository) {
+        this.sellerRepository = sellerRepository;
+        this.itemRepository = itemRepository;
+        this.buyerRepository = buyerRepository;
+    }
+
+    public Long createSeller() {
+        Seller seller = new Seller();
+        seller.setName("Seller");
+        return sellerRepository.save(seller).getId();
+    }
+
+    public Long createBuyer() {
+        return createBuyer("Buyer");
+    }
+
+    public Long createBuyer(String name) {
+        Buyer buyer = new Buyer();
+        buyer.setName(name);
+        return buyerRepository.save(buyer).getId();
+    }
+
+    // An item priced 2.5 from a seller of its own
+    public Long createItem(int quantity) {
+        return createItem(createSeller(), 2.5, quantity);
+    }
+
+    public Long createItem(Long sellerId, double price, int quantity) {
+        return createItem(sellerId, "Item", price, quantity);
+    }
+
+    public Long createItem(Long sellerId, String name, double price, int quantity) {
+        Item item = new Item();
+        item.setName(name);
+        item.setPrice(price);
+        item.setQuantity(quantity);
+        item.setSeller(sellerRepository.findById(sellerId).orElseThrow());
+        return itemRepository.save(item).getId();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.AnycompMarketplaceApplication.controller;
+
+import com.example.AnycompMarketplaceApplication.TestData;
+import com.example.AnycompMarketplaceApplication.dto.ItemRequestDTO;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseRequest;
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
+import com.example.AnycompMarketplaceApplication.service.ItemService;
+import com.example.AnycompMarketplaceApplication.service.PurchaseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTest {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private MockHttpSession session;
+
+    @BeforeEach
+    void logIn() throws Exception {
+        session = (MockHttpSession) mockMvc.perform(post("/login")
+                        .param("username", "myuser")
+                        .param("password", "mypassword"))
+                .andReturn().getRequest().getSession();
+    }
+
+    @Test
+    void itemEtagFollowsEditsButNotStock() throws Exception {
+        Long sellerId = testData.createSeller();
+        Long itemId = itemService.addItem(sellerId, item("Lamp", 10.0)).getId();
+        String etag = etagOf("/items/" + itemId);
+
+        mockMvc.perform(get("/items/" + itemId).session(session).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Batch purchases change Item.quantity through dirty checking, which must not bump the version
+        long version = itemRepository.findById(itemId).orElseThrow().getVersion();
+        purchaseService.createPurchases(List.of(line(testData.createBuyer(), itemId)), true);
+        assertThat(itemRepository.findQuantityById(itemId)).contains(9);
+        assertThat(itemRepository.findById(itemId).orElseThrow().getVersion()).isEqualTo(version);
+
+        itemService.updateItem(itemId, item("Desk lamp", 12.0));
+        mockMvc.perform(get("/items/" + itemId).session(session).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        assertThat(etagOf("/items/" + itemId)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void sellerAndListPagesAnswerIfNoneMatch() throws Exception {
+        Long sellerId = testData.createSeller();
+        String sellerEtag = etagOf("/sellers/" + sellerId);
+        assertThat(sellerEtag).doesNotStartWith("W/");
+        mockMvc.perform(get("/sellers/" + sellerId).session(session).header(HttpHeaders.IF_NONE_MATCH, sellerEtag))
+                .andExpect(status().isNotModified());
+
+        String pageEtag = etagOf("/items/sellers/" + sellerId);
+        assertThat(pageEtag).startsWith("W/");
+        mockMvc.perform(get("/items/sellers/" + sellerId).session(session).header(HttpHeaders.IF_NONE_MATCH, pageEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void repeatedSellerUpdatesWithoutVersionSucceedAndChangeTheEtag() throws Exception {
+        Long sellerId = testData.createSeller();
+        String etag = etagOf("/sellers/" + sellerId);
+
+        for (String name : List.of("First", "Second", "Third")) {
+            mockMvc.perform(put("/sellers/" + sellerId).session(session)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\":\"" + name + "\",\"email\":\"shop@example.com\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.name").value(name));
+            String updatedEtag = etagOf("/sellers/" + sellerId);
+            assertThat(updatedEtag).isNotEqualTo(etag);
+            etag = updatedEtag;
+        }
+    }
+
+    private String etagOf(String path) throws Exception {
+        return mockMvc.perform(get(path).session(session))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private ItemRequestDTO item(String name, double price) {
+        ItemRequestDTO item = new ItemRequestDTO();
+        item.setName(name);
+        item.setPrice(price);
+        item.setQuantity(10);
+        return item;
+    }
+
+    private PurchaseRequest line(Long buyerId, Long itemId) {
+        PurchaseRequest line = new PurchaseRequest();
+        line.setBuyerId(buyerId);
+        line.setItemId(itemId);
+        line.setQuantity(1);
+        return line;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.AnycompMarketplaceApplication.controller;
+
+import com.example.AnycompMarketplaceApplication.TestData;
+import com.example.AnycompMarketplaceApplication.dto.ItemRequestDTO;
+import com.example.AnycompMarketplaceApplication.service.ItemService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// JDBC and R2DBC open the same named in-memory database
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:item-stream;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.url=r2dbc:h2:mem:///item-stream?options=MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa"
+})
+// Printing the exchange would read response headers while the emitter thread may still be writing them
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@ActiveProfiles("test")
+class ItemStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private TestData testData;
+
+    private MockHttpSession session;
+
+    @BeforeEach
+    void logIn() throws Exception {
+        session = (MockHttpSession) mockMvc.perform(post("/login")
+                        .param("username", "myuser")
+                        .param("password", "mypassword"))
+                .andReturn().getRequest().getSession();
+    }
+
+    @Test
+    void streamsSellerItemsAsNdjsonInIdOrder() throws Exception {
+        Long sellerId = testData.createSeller();
+        Long lamp = itemService.addItem(sellerId, item("Lamp")).getId();
+        Long desk = itemService.addItem(sellerId, item("Desk")).getId();
+        Long chair = itemService.addItem(sellerId, item("Chair")).getId();
+
+        String body = stream("/items/sellers/" + sellerId + "/stream");
+        assertThat(body.lines()).containsExactly(
+                "{\"id\":" + lamp + ",\"name\":\"Lamp\",\"price\":10.0,\"sellerId\":" + sellerId + "}",
+                "{\"id\":" + desk + ",\"name\":\"Desk\",\"price\":10.0,\"sellerId\":" + sellerId + "}",
+                "{\"id\":" + chair + ",\"name\":\"Chair\",\"price\":10.0,\"sellerId\":" + sellerId + "}");
+
+        // Resuming after the last id received, with a limit
+        assertThat(stream("/items/sellers/" + sellerId + "/stream?afterId=" + lamp + "&limit=1").lines())
+                .singleElement().asString().contains("\"id\":" + desk);
+        assertThat(stream("/items/stream?afterId=" + desk).lines())
+                .anySatisfy(line -> assertThat(line).contains("\"id\":" + chair))
+                .noneSatisfy(line -> assertThat(line).contains("\"id\":" + lamp));
+    }
+
+    @Test
+    void rejectsUnknownSellersAndBadLimitsBeforeStreaming() throws Exception {
+        MvcResult missing = mockMvc.perform(get("/items/sellers/-1/stream").session(session))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(missing)).andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/items/stream?limit=0").session(session)).andExpect(status().isBadRequest());
+    }
+
+    private String stream(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url).session(session))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // The seller stream goes async twice: once to decide the status, then for the items themselves
+        do {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        } while (result.getRequest().isAsyncStarted());
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(MediaType.parseMediaType(result.getResponse().getContentType()).isCompatibleWith(MediaType.APPLICATION_NDJSON)).isTrue();
+        return result.getResponse().getContentAsString();
+    }
+
+    private ItemRequestDTO item(String name) {
+        ItemRequestDTO item = new ItemRequestDTO();
+        item.setName(name);
+        item.setPrice(10.0);
+        item.setQuantity(1);
+        return item;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.AnycompMarketplaceApplication.controller;
+
+import com.example.AnycompMarketplaceApplication.dto.PurchaseRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "marketplace.rate-limit.enabled=true",
+        "marketplace.rate-limit.item-reads.capacity=2",
+        "marketplace.rate-limit.item-reads.per-second=0.001",
+        "marketplace.rate-limit.buyer-purchases.capacity=1",
+        "marketplace.rate-limit.buyer-purchases.per-second=0.001"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RateLimitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockHttpSession session;
+
+    @BeforeEach
+    void logIn() throws Exception {
+        session = (MockHttpSession) mockMvc.perform(post("/login")
+                        .param("username", "myuser")
+                        .param("password", "mypassword"))
+                .andReturn().getRequest().getSession();
+    }
+
+    @Test
+    void throttlesItemReadsPerPrincipalWithRetryAfter() throws Exception {
+        mockMvc.perform(get("/items/-1").session(session)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/items/-1").session(session)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/items/-1").session(session))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+        // Other route groups have their own buckets
+        mockMvc.perform(get("/sellers/-1").session(session)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void throttlesPurchasesPerBuyer() throws Exception {
+        PurchaseRequest purchase = new PurchaseRequest();
+        purchase.setBuyerId(-42L);
+        purchase.setItemId(-1L);
+        purchase.setQuantity(1);
+        String body = objectMapper.writeValueAsString(purchase);
+
+        mockMvc.perform(post("/purchase").session(session).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/purchase").session(session).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.AnycompMarketplaceApplication.controller;
+
+import com.example.AnycompMarketplaceApplication.TestData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "marketplace.security.mode=token",
+        "marketplace.security.token.secret=0123456789abcdef0123456789abcdef"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class TokenAuthenticationTest {
+
+    private static final String OPERATOR = "Basic "
+            + Base64.getEncoder().encodeToString("myuser:mypassword".getBytes(StandardCharsets.UTF_8));
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void buyerTokenAuthenticatesWithoutASession() throws Exception {
+        Long buyerId = testData.createBuyer();
+        String token = issue("/auth/token?buyerId=" + buyerId);
+
+        for (int i = 0; i < 2; i++) {
+            MvcResult result = mockMvc.perform(get("/buyers/" + buyerId).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            assertThat(result.getRequest().getSession(false)).isNull();
+        }
+
+        // Buyers cannot mint tokens for anyone
+        mockMvc.perform(post("/auth/token").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void rejectsMissingTamperedAndUnknownCredentials() throws Exception {
+        mockMvc.perform(get("/buyers/cursor")).andExpect(status().isUnauthorized());
+
+        String token = issue("/auth/token");
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"myuser\",\"roles\":[\"ADMIN\"],\"exp\":9999999999}".getBytes(StandardCharsets.UTF_8))
+                + "." + parts[2];
+        mockMvc.perform(get("/buyers/cursor").header(HttpHeaders.AUTHORIZATION, "Bearer " + forged))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/buyers/cursor").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/auth/token?buyerId=-1").header(HttpHeaders.AUTHORIZATION, OPERATOR))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void buyerAndSellerTokensReachOnlyTheirOwnRecords() throws Exception {
+        Long buyerId = testData.createBuyer();
+        Long otherBuyerId = testData.createBuyer();
+        Long sellerId = testData.createSeller();
+        Long itemId = testData.createItem(sellerId, 2.5, 10);
+        Long otherItemId = testData.createItem(10);
+        String buyer = "Bearer " + issue("/auth/token?buyerId=" + buyerId);
+        String seller = "Bearer " + issue("/auth/token?sellerId=" + sellerId);
+
+        mockMvc.perform(get("/items/" + itemId).header(HttpHeaders.AUTHORIZATION, buyer)).andExpect(status().isOk());
+        mockMvc.perform(post("/purchase").header(HttpHeaders.AUTHORIZATION, buyer)
+                        .contentType(MediaType.APPLICATION_JSON).content(purchase(buyerId, itemId)))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/purchase").header(HttpHeaders.AUTHORIZATION, buyer)
+                        .contentType(MediaType.APPLICATION_JSON).content(purchase(otherBuyerId, itemId)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/buyers/" + otherBuyerId).header(HttpHeaders.AUTHORIZATION, buyer)).andExpect(status().isForbidden());
+        mockMvc.perform(get("/purchase").header(HttpHeaders.AUTHORIZATION, buyer)).andExpect(status().isForbidden());
+        mockMvc.perform(delete("/sellers/" + sellerId).header(HttpHeaders.AUTHORIZATION, buyer)).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/sqlstatements").header(HttpHeaders.AUTHORIZATION, buyer)).andExpect(status().isForbidden());
+
+        String edit = "{\"name\":\"Lamp\",\"price\":3.0}";
+        mockMvc.perform(put("/items/" + itemId).header(HttpHeaders.AUTHORIZATION, buyer)
+                        .contentType(MediaType.APPLICATION_JSON).content(edit))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(put("/items/" + itemId).header(HttpHeaders.AUTHORIZATION, seller)
+                        .contentType(MediaType.APPLICATION_JSON).content(edit))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/items/" + otherItemId).header(HttpHeaders.AUTHORIZATION, seller)
+                        .contentType(MediaType.APPLICATION_JSON).content(edit))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/purchase").header(HttpHeaders.AUTHORIZATION, seller)
+                        .contentType(MediaType.APPLICATION_JSON).content(purchase(buyerId, itemId)))
+                .andExpect(status().isForbidden());
+
+        // Operators keep full access
+        mockMvc.perform(get("/actuator/sqlstatements").header(HttpHeaders.AUTHORIZATION, OPERATOR)).andExpect(status().isOk());
+    }
+
+    @Test
+    void onlyHealthIsPublicAndMetricScrapesNeedAnOperator() throws Exception {
+        String buyer = "Bearer " + issue("/auth/token?buyerId=" + testData.createBuyer());
+
+        // Reachable without credentials; the status itself depends on the test's health indicators
+        assertThat(mockMvc.perform(get("/actuator/health")).andReturn().getResponse().getStatus()).isNotIn(401, 403);
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, buyer)).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, OPERATOR)).andExpect(status().isOk());
+    }
+
+    private static String purchase(Long buyerId, Long itemId) {
+        return "{\"buyerId\":" + buyerId + ",\"itemId\":" + itemId + ",\"quantity\":1}";
+    }
+
+    private String issue(String path) throws Exception {
+        String body = mockMvc.perform(post(path).header(HttpHeaders.AUTHORIZATION, OPERATOR))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("accessToken").asText();
+    }
+}
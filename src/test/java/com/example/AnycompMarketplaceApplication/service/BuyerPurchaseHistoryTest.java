@@ -0,0 +1,91 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.TestData;
+import com.example.AnycompMarketplaceApplication.dto.BuyerPurchase;
+import com.example.AnycompMarketplaceApplication.dto.CursorPage;
+import com.example.AnycompMarketplaceApplication.repository.BuyerRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BuyerPurchaseHistoryTest {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private BuyerService buyerService;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private BuyerRepository buyerRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void pagesThroughOwnPurchasesNewestFirst() {
+        Long buyerId = testData.createBuyer();
+        Long otherBuyerId = testData.createBuyer();
+        Long itemId = testData.createItem(100);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            expected.add(0, purchaseService.createPurchase(buyerId, itemId, i).getPurchaseId());
+        }
+        purchaseService.createPurchase(otherBuyerId, itemId, 1);
+
+        List<Long> seen = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<BuyerPurchase> page = buyerService.getPurchasesAfter(buyerId, after, 2);
+            page.getContent().forEach(purchase -> seen.add(purchase.getPurchaseId()));
+            after = page.getNextCursor();
+        } while (after != null);
+
+        assertThat(seen).containsExactlyElementsOf(expected);
+        BuyerPurchase newest = buyerService.getPurchasesAfter(buyerId, null, 1).getContent().get(0);
+        assertThat(newest.getItemId()).isEqualTo(itemId);
+        assertThat(newest.getQuantity()).isEqualTo(5);
+        assertThat(newest.getUnitPrice()).isEqualTo(2.5);
+    }
+
+    @Test
+    void distinguishesUnknownBuyerFromEmptyHistory() {
+        assertThat(buyerService.getPurchasesAfter(testData.createBuyer(), null, null).getContent()).isEmpty();
+        assertThatThrownBy(() -> buyerService.getPurchasesAfter(-1L, null, null))
+                .isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void serializingBuyerDoesNotLoadHistory() throws Exception {
+        Long buyerId = testData.createBuyer();
+        purchaseService.createPurchase(buyerId, testData.createItem(100), 1);
+
+        String json = new TransactionTemplate(transactionManager).execute(status -> {
+            try {
+                return objectMapper.writeValueAsString(buyerRepository.findById(buyerId).orElseThrow());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(json).doesNotContain("purchasedItems");
+    }
+}
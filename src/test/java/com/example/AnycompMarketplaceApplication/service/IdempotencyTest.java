@@ -0,0 +1,109 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.TestData;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseResponse;
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyTest {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void replayReturnsOriginalPurchaseFromMemoryAndDatabase() {
+        Long buyerId = testData.createBuyer();
+        Long itemId = testData.createItem(10);
+        String key = UUID.randomUUID().toString();
+
+        PurchaseResponse first = purchaseService.createPurchase(buyerId, itemId, 3, "user", key);
+        PurchaseResponse fromMemory = purchaseService.createPurchase(buyerId, itemId, 3, "user", key);
+        idempotencyStore.evictLocal("user", key);
+        PurchaseResponse fromDatabase = purchaseService.createPurchase(buyerId, itemId, 3, "user", key);
+
+        assertThat(fromMemory.getPurchaseId()).isEqualTo(first.getPurchaseId());
+        assertThat(fromDatabase.getPurchaseId()).isEqualTo(first.getPurchaseId());
+        assertThat(itemRepository.findQuantityById(itemId)).contains(7);
+
+        // Keys are scoped to the caller
+        PurchaseResponse otherUser = purchaseService.createPurchase(buyerId, itemId, 3, "other", key);
+        assertThat(otherUser.getPurchaseId()).isNotEqualTo(first.getPurchaseId());
+    }
+
+    @Test
+    void rejectsKeyReusedForDifferentRequest() {
+        Long buyerId = testData.createBuyer();
+        Long itemId = testData.createItem(10);
+        String key = UUID.randomUUID().toString();
+        purchaseService.createPurchase(buyerId, itemId, 1, "user", key);
+
+        assertThatThrownBy(() -> purchaseService.createPurchase(buyerId, itemId, 2, "user", key))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+        assertThat(itemRepository.findQuantityById(itemId)).contains(9);
+    }
+
+    @Test
+    void failedRequestCanBeRetriedWithSameKey() {
+        Long buyerId = testData.createBuyer();
+        Long itemId = testData.createItem(1);
+        String key = UUID.randomUUID().toString();
+
+        assertThatThrownBy(() -> purchaseService.createPurchase(buyerId, itemId, 2, "user", key))
+                .isInstanceOf(IllegalArgumentException.class);
+        PurchaseResponse retried = purchaseService.createPurchase(buyerId, itemId, 1, "user", key);
+
+        assertThat(retried.getQuantity()).isEqualTo(1);
+        assertThat(itemRepository.findQuantityById(itemId)).contains(0);
+    }
+
+    @Test
+    void concurrentDuplicatesCreateOnePurchase() throws Exception {
+        Long buyerId = testData.createBuyer();
+        Long itemId = testData.createItem(100);
+        String key = UUID.randomUUID().toString();
+        int threads = 16;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<PurchaseResponse>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return purchaseService.createPurchase(buyerId, itemId, 5, "user", key);
+            }));
+        }
+        start.countDown();
+
+        Long purchaseId = results.get(0).get().getPurchaseId();
+        for (Future<PurchaseResponse> result : results) {
+            assertThat(result.get().getPurchaseId()).isEqualTo(purchaseId);
+        }
+        executor.shutdown();
+        assertThat(itemRepository.findQuantityById(itemId)).contains(95);
+    }
+}
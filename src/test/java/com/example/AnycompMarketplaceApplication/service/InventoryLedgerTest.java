@@ -0,0 +1,105 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.TestData;
+import com.example.AnycompMarketplaceApplication.entity.Purchase;
+import com.example.AnycompMarketplaceApplication.repository.BuyerRepository;
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
+import com.example.AnycompMarketplaceApplication.repository.PurchaseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "marketplace.inventory.ledger.enabled=true",
+        "marketplace.inventory.ledger.promotion-threshold=1",
+        "marketplace.inventory.ledger.flush-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class InventoryLedgerTest {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BuyerRepository buyerRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private ItemSalesService itemSalesService;
+
+    @Test
+    void hotItemReservesInMemoryAndFlushesToItemTable() throws Exception {
+        Long itemId = testData.createItem(testData.createSeller(), 5.0, 300);
+        Long buyerId = testData.createBuyer();
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    purchaseService.createPurchase(buyerId, itemId, 1);
+                    accepted.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    // sold out
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(inventoryLedger.isHot(itemId)).isTrue();
+        assertThat(accepted.get()).isEqualTo(300);
+        assertThat(itemRepository.findQuantityById(itemId)).contains(300);
+        assertThat(purchaseRepository.sumPendingStock(itemId)).isEqualTo(300);
+        assertThat(itemSalesService.getItemSales(itemId, null, null).getUnits()).isZero();
+
+        inventoryLedger.flush();
+
+        assertThat(itemRepository.findQuantityById(itemId)).contains(0);
+        assertThat(purchaseRepository.sumPendingStock(itemId)).isZero();
+        assertThat(itemSalesService.getItemSales(itemId, null, null).getRevenue()).isEqualTo(1500.0);
+    }
+
+    @Test
+    void reconcileAppliesStockLeftPendingByACrash() {
+        Long itemId = testData.createItem(testData.createSeller(), 5.0, 10);
+        Purchase purchase = new Purchase();
+        purchase.setBuyer(buyerRepository.findById(testData.createBuyer()).orElseThrow());
+        purchase.setItem(itemRepository.findById(itemId).orElseThrow());
+        purchase.setQuantity(4);
+        purchase.setPurchaseDate(new Timestamp(System.currentTimeMillis()));
+        purchase.setStockPending(true);
+        purchaseRepository.save(purchase);
+
+        inventoryLedger.reconcile();
+
+        assertThat(itemRepository.findQuantityById(itemId)).contains(6);
+        assertThat(purchaseRepository.sumPendingStock(itemId)).isZero();
+        assertThat(itemSalesService.getItemSales(itemId, null, null).getUnits()).isEqualTo(4);
+    }
+}
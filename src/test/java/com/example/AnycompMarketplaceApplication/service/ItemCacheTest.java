@@ -0,0 +1,101 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.TestData;
+import com.example.AnycompMarketplaceApplication.dto.ItemRequestDTO;
+import com.example.AnycompMarketplaceApplication.dto.ItemResponseDTO;
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.reset;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemCacheTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @MockitoSpyBean
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void writesInvalidateCachedItemsAndSellerPages() {
+        Long sellerId = testData.createSeller();
+        ItemResponseDTO item = itemService.addItem(sellerId, request("Lamp", 10.0));
+        PageRequest firstPage = PageRequest.of(0, 10);
+
+        assertThat(itemService.getItemById(item.getId())).get().extracting(ItemResponseDTO::getPrice).isEqualTo(10.0);
+        long hits = itemCache.getItemStats().hitCount();
+        assertThat(itemService.getItemById(item.getId())).isPresent();
+        assertThat(itemCache.getItemStats().hitCount()).isEqualTo(hits + 1);
+        assertThat(itemService.getItemsBySellerId(sellerId, firstPage).getTotalElements()).isEqualTo(1);
+
+        itemService.updateItem(item.getId(), request("Lamp", 12.5));
+        assertThat(itemService.getItemById(item.getId())).get().extracting(ItemResponseDTO::getPrice).isEqualTo(12.5);
+        assertThat(itemService.getItemsBySellerId(sellerId, firstPage).getContent())
+                .extracting(ItemResponseDTO::getPrice).containsExactly(12.5);
+
+        itemService.addItem(sellerId, request("Chair", 30.0));
+        assertThat(itemService.getItemsBySellerId(sellerId, firstPage).getTotalElements()).isEqualTo(2);
+
+        itemService.deleteItem(item.getId());
+        assertThat(itemService.getItemById(item.getId())).isEmpty();
+        assertThat(itemService.getItemsBySellerId(sellerId, firstPage).getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    void purchaseCommittedBetweenTheReadAndTheWriteOfAnItemEditKeepsItsStock() {
+        Long buyerId = testData.createBuyer();
+        Long itemId = testData.createItem(10);
+        Thread editor = Thread.currentThread();
+        AtomicBoolean interleaved = new AtomicBoolean();
+        // The repository is a proxy, so the real call goes through the spy's delegating default answer
+        Answer<?> real = mockingDetails(itemRepository).getMockCreationSettings().getDefaultAnswer();
+        // The edit reads the item, then a purchase commits on another thread before the edit writes
+        doAnswer(invocation -> {
+            Object item = real.answer(invocation);
+            if (Thread.currentThread() == editor && interleaved.compareAndSet(false, true)) {
+                Thread buyer = new Thread(() -> purchaseService.createPurchase(buyerId, itemId, 1));
+                buyer.start();
+                buyer.join();
+            }
+            return item;
+        }).when(itemRepository).findById(itemId);
+
+        try {
+            itemService.updateItem(itemId, request("Desk lamp", 12.5));
+        } finally {
+            reset(itemRepository);
+        }
+        assertThat(interleaved).isTrue();
+        assertThat(itemRepository.findQuantityById(itemId)).contains(9);
+        assertThat(itemService.getItemById(itemId)).get().extracting(ItemResponseDTO::getName).isEqualTo("Desk lamp");
+    }
+
+    private ItemRequestDTO request(String name, double price) {
+        ItemRequestDTO request = new ItemRequestDTO();
+        request.setName(name);
+        request.setPrice(price);
+        return request;
+    }
+}
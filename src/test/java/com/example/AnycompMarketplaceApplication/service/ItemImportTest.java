@@ -0,0 +1,125 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.TestData;
+import com.example.AnycompMarketplaceApplication.dto.FileFormat;
+import com.example.AnycompMarketplaceApplication.dto.ItemImportResponse;
+import com.example.AnycompMarketplaceApplication.entity.Item;
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemImportTest {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private ItemImportService itemImportService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void importsValidCsvRowsAndReportsInvalidOnes() {
+        Long sellerId = testData.createSeller();
+        String csv = "name,price,quantity,description\n"
+                + "Lamp,19.99,5,\"Desk lamp, \"\"LED\"\"\nwarm white\"\n"
+                + ",5.00,1,missing name\n"
+                + "Chair,abc,1,\n"
+                + "Table,-1,1,\n"
+                + "Rug,45,,\n";
+
+        ItemImportResponse response = runImport(sellerId, FileFormat.CSV, csv);
+
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(response.getRejected()).isEqualTo(3);
+        assertThat(response.getErrors()).extracting("line").containsExactly(4L, 5L, 6L);
+        assertThat(response.getErrors().get(0).getError()).isEqualTo("name is required");
+
+        List<Item> items = itemRepository.findBySellerId(sellerId, PageRequest.of(0, 10, Sort.by("id"))).getContent();
+        assertThat(items).extracting(Item::getName).containsExactly("Lamp", "Rug");
+        assertThat(items.get(0).getDescription()).isEqualTo("Desk lamp, \"LED\"\nwarm white");
+        assertThat(items.get(0).getQuantity()).isEqualTo(5);
+        assertThat(items.get(1).getQuantity()).isZero();
+    }
+
+    @Test
+    void importsNdjsonInChunks() {
+        Long sellerId = testData.createSeller();
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            ndjson.append("{\"name\":\"Item ").append(i).append("\",\"price\":").append(i).append(".5,\"quantity\":3}\n");
+        }
+        ndjson.append("{\"name\":\"Broken\",\n");
+        ndjson.append("null\n");
+
+        ItemImportResponse response = runImport(sellerId, FileFormat.NDJSON, ndjson.toString());
+
+        assertThat(response.getImported()).isEqualTo(2500);
+        assertThat(response.getRejected()).isEqualTo(2);
+        assertThat(response.getErrors()).extracting("line").containsExactly(2501L, 2502L);
+        assertThat(itemRepository.findBySellerId(sellerId, PageRequest.of(0, 1)).getTotalElements()).isEqualTo(2500);
+    }
+
+    @Test
+    void unterminatedQuoteIsRejectedOnceTheRecordOutgrowsTheLimitAndReadingResumesOnTheNextLine() {
+        Long sellerId = testData.createSeller();
+        String filler = "x".repeat(1000) + "\n";
+        String csv = "name,price\n"
+                + "Lamp,10\n"
+                + "\"Broken,5\n"
+                + filler.repeat(ItemImportService.MAX_RECORD_LENGTH / filler.length() + 1)
+                + "Desk,20\n";
+
+        ItemImportResponse response = runImport(sellerId, FileFormat.CSV, csv);
+
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(response.getRejected()).isEqualTo(1);
+        assertThat(response.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getLine()).isEqualTo(3L);
+            assertThat(error.getError()).isEqualTo("Record longer than " + ItemImportService.MAX_RECORD_LENGTH + " characters");
+        });
+        assertThat(itemRepository.findBySellerId(sellerId, PageRequest.of(0, 10, Sort.by("id"))).getContent())
+                .extracting(Item::getName).containsExactly("Lamp", "Desk");
+    }
+
+    @Test
+    void overlongNdjsonLineIsRejectedWithoutStoppingTheImport() {
+        Long sellerId = testData.createSeller();
+        String ndjson = "{\"name\":\"" + "x".repeat(ItemImportService.MAX_RECORD_LENGTH) + "\",\"price\":1}\r\n"
+                + "{\"name\":\"Lamp\",\"price\":10}\r\n";
+
+        ItemImportResponse response = runImport(sellerId, FileFormat.NDJSON, ndjson);
+
+        assertThat(response.getImported()).isEqualTo(1);
+        assertThat(response.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getLine()).isEqualTo(1L);
+            assertThat(error.getError()).isEqualTo("Line longer than " + ItemImportService.MAX_RECORD_LENGTH + " characters");
+        });
+    }
+
+    @Test
+    void rejectsUnknownSeller() {
+        assertThatThrownBy(() -> runImport(-1L, FileFormat.NDJSON, ""))
+                .isInstanceOf(NoSuchElementException.class);
+    }
+
+    private ItemImportResponse runImport(Long sellerId, FileFormat format, String body) {
+        return itemImportService.importItems(sellerId, format,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
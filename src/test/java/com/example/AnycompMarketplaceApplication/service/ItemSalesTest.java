@@ -0,0 +1,132 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.TestData;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseRequest;
+import com.example.AnycompMarketplaceApplication.dto.SalesDay;
+import com.example.AnycompMarketplaceApplication.dto.SalesReport;
+import com.example.AnycompMarketplaceApplication.entity.Item;
+import com.example.AnycompMarketplaceApplication.entity.Purchase;
+import com.example.AnycompMarketplaceApplication.repository.BuyerRepository;
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
+import com.example.AnycompMarketplaceApplication.repository.PurchaseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemSalesTest {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private ItemSalesService itemSalesService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BuyerRepository buyerRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Test
+    void purchasesUpdateItemAndSellerSalesAtPurchasePrice() {
+        Long sellerId = testData.createSeller();
+        Long firstItem = testData.createItem(sellerId, 2.5, 100);
+        Long secondItem = testData.createItem(sellerId, 4.0, 100);
+        Long buyerId = testData.createBuyer();
+        LocalDate today = LocalDate.now();
+
+        purchaseService.createPurchase(buyerId, firstItem, 2);
+        purchaseService.createPurchases(List.of(line(buyerId, firstItem, 1), line(buyerId, secondItem, 3)), true);
+        changePrice(firstItem, 100.0);
+        purchaseService.createPurchase(buyerId, firstItem, 1);
+
+        SalesReport item = itemSalesService.getItemSales(firstItem, today, today);
+        assertThat(item.getDays()).singleElement().satisfies(day -> {
+            assertThat(day.getDate()).isEqualTo(today);
+            assertThat(day.getUnits()).isEqualTo(4);
+            assertThat(day.getRevenue()).isEqualTo(107.5);
+            assertThat(day.getPurchases()).isEqualTo(3);
+        });
+
+        SalesReport seller = itemSalesService.getSellerSales(sellerId, null, null);
+        assertThat(seller.getFrom()).isEqualTo(today.minusDays(29));
+        assertThat(seller.getDays()).extracting(SalesDay::getItemId).containsExactly(firstItem, secondItem);
+        assertThat(seller.getUnits()).isEqualTo(7);
+        assertThat(seller.getRevenue()).isEqualTo(119.5);
+    }
+
+    @Test
+    void rebuildMatchesIncrementalRowsAndBackfillsOldPurchases() {
+        Long sellerId = testData.createSeller();
+        Long itemId = testData.createItem(sellerId, 2.0, 100);
+        Long buyerId = testData.createBuyer();
+        purchaseService.createPurchase(buyerId, itemId, 5);
+        // Recorded before unit prices and aggregates existed: priced at the current item price
+        LocalDate lastWeek = LocalDate.now().minusDays(7);
+        savePurchaseWithoutPrice(buyerId, itemId, 3, lastWeek);
+
+        assertThat(itemSalesService.rebuild()).isPositive();
+
+        SalesReport report = itemSalesService.getItemSales(itemId, lastWeek, LocalDate.now());
+        assertThat(report.getDays()).extracting(SalesDay::getDate).containsExactly(lastWeek, LocalDate.now());
+        assertThat(report.getDays()).extracting(SalesDay::getUnits).containsExactly(3L, 5L);
+        assertThat(report.getRevenue()).isEqualTo(16.0);
+        assertThat(report.getPurchases()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsUnknownIdsAndInvalidRanges() {
+        LocalDate today = LocalDate.now();
+        assertThatThrownBy(() -> itemSalesService.getSellerSales(-1L, null, null))
+                .isInstanceOf(NoSuchElementException.class);
+        assertThatThrownBy(() -> itemSalesService.getItemSales(-1L, null, null))
+                .isInstanceOf(NoSuchElementException.class);
+        Long sellerId = testData.createSeller();
+        assertThatThrownBy(() -> itemSalesService.getSellerSales(sellerId, today, today.minusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> itemSalesService.getSellerSales(sellerId, today.minusYears(2), today))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void savePurchaseWithoutPrice(Long buyerId, Long itemId, int quantity, LocalDate date) {
+        Purchase purchase = new Purchase();
+        purchase.setBuyer(buyerRepository.findById(buyerId).orElseThrow());
+        purchase.setItem(itemRepository.findById(itemId).orElseThrow());
+        purchase.setQuantity(quantity);
+        purchase.setPurchaseDate(Timestamp.valueOf(LocalDateTime.of(date, LocalTime.NOON)));
+        purchaseRepository.save(purchase);
+    }
+
+    private void changePrice(Long itemId, double price) {
+        Item item = itemRepository.findById(itemId).orElseThrow();
+        item.setPrice(price);
+        itemRepository.save(item);
+    }
+
+    private PurchaseRequest line(Long buyerId, Long itemId, int quantity) {
+        PurchaseRequest line = new PurchaseRequest();
+        line.setBuyerId(buyerId);
+        line.setItemId(itemId);
+        line.setQuantity(quantity);
+        return line;
+    }
+}
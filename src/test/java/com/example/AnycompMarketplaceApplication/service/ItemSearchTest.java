@@ -0,0 +1,93 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.TestData;
+import com.example.AnycompMarketplaceApplication.dto.FileFormat;
+import com.example.AnycompMarketplaceApplication.dto.ItemRequestDTO;
+import com.example.AnycompMarketplaceApplication.dto.ItemResponseDTO;
+import com.example.AnycompMarketplaceApplication.dto.ItemSearchHit;
+import com.example.AnycompMarketplaceApplication.dto.ItemSearchResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemSearchTest {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemImportService itemImportService;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Test
+    void ranksNameMatchesAndFiltersByPriceAndSeller() {
+        Long firstSeller = testData.createSeller();
+        Long secondSeller = testData.createSeller();
+        ItemResponseDTO inName = itemService.addItem(firstSeller, item("Walnut lantern", "Hand finished", 40.0));
+        ItemResponseDTO inDescription = itemService.addItem(firstSeller, item("Table light", "Walnut lanterns for desks", 25.0));
+        ItemResponseDTO otherSeller = itemService.addItem(secondSeller, item("Walnut lantern XL", null, 90.0));
+        itemService.addItem(secondSeller, item("Walnut bowl", null, 30.0));
+        itemSearchIndex.refresh();
+
+        ItemSearchResponse all = itemService.searchItems("walnut lantern", null, null, null, 0, 10, 10);
+        assertThat(all.getHits()).extracting(ItemSearchHit::getId)
+                .containsExactlyInAnyOrder(inName.getId(), inDescription.getId(), otherSeller.getId());
+        assertThat(all.getHits().get(all.getHits().size() - 1).getId()).isEqualTo(inDescription.getId());
+
+        ItemSearchResponse filtered = itemService.searchItems("walnut lantern", 20.0, 50.0, firstSeller, 0, 10, 10);
+        assertThat(filtered.getTotalHits()).isEqualTo(2);
+        assertThat(filtered.getSellers()).singleElement()
+                .satisfies(facet -> {
+                    assertThat(facet.getSellerId()).isEqualTo(firstSeller);
+                    assertThat(facet.getCount()).isEqualTo(2);
+                });
+    }
+
+    @Test
+    void followsUpdatesDeletesAndImports() {
+        Long sellerId = testData.createSeller();
+        ItemResponseDTO item = itemService.addItem(sellerId, item("Copper kettle", null, 55.0));
+        itemService.updateItem(item.getId(), item("Enamel kettle", null, 55.0));
+        itemSearchIndex.refresh();
+        assertThat(itemService.searchItems("copper", null, null, sellerId, 0, 10, 0).getTotalHits()).isZero();
+        assertThat(itemService.searchItems("enamel", null, null, sellerId, 0, 10, 0).getTotalHits()).isEqualTo(1);
+
+        itemService.deleteItem(item.getId());
+        itemImportService.importItems(sellerId, FileFormat.CSV, new ByteArrayInputStream(
+                "name,price\nCast iron kettle,70\n".getBytes(StandardCharsets.UTF_8)));
+        itemSearchIndex.refresh();
+
+        ItemSearchResponse response = itemService.searchItems("kettle", null, null, sellerId, 0, 10, 0);
+        assertThat(response.getHits()).extracting(ItemSearchHit::getName).containsExactly("Cast iron kettle");
+    }
+
+    @Test
+    void rejectsDeepPagesAndInvertedPriceRange() {
+        assertThatThrownBy(() -> itemService.searchItems("x", null, null, null, 500, 100, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> itemService.searchItems("x", 10.0, 5.0, null, 0, 10, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ItemRequestDTO item(String name, String description, double price) {
+        ItemRequestDTO item = new ItemRequestDTO();
+        item.setName(name);
+        item.setDescription(description);
+        item.setPrice(price);
+        return item;
+    }
+}
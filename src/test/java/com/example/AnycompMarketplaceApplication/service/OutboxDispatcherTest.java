@@ -0,0 +1,198 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.TestData;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseEvent;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseRequest;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseResponse;
+import com.example.AnycompMarketplaceApplication.entity.OutboxEvent;
+import com.example.AnycompMarketplaceApplication.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "marketplace.outbox.enabled=true",
+        "marketplace.outbox.poll-interval-ms=3600000",
+        "marketplace.outbox.retry.initial-backoff=1h",
+        "marketplace.outbox.retry.max-attempts=2",
+        "marketplace.outbox.sinks.in-process.enabled=true",
+        "marketplace.outbox.sinks.in-process.capacity=2"
+})
+@ActiveProfiles("test")
+class OutboxDispatcherTest {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private InProcessPurchaseEventSink inProcessSink;
+
+    @Autowired
+    private FlakySink flakySink;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @BeforeEach
+    void drainLeftovers() {
+        outboxDispatcher.dispatch();
+        inProcessSink.drainTo(new ArrayList<>(), Integer.MAX_VALUE);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void healSink() {
+        flakySink.failing = false;
+        flakySink.poisonQuantity = 0;
+    }
+
+    @Test
+    void deliversSingleAndBatchPurchasesAndEmptiesOutbox() {
+        Long buyerId = testData.createBuyer();
+        Long itemId = testData.createItem(10);
+        PurchaseResponse single = purchaseService.createPurchase(buyerId, itemId, 2);
+        purchaseService.createPurchases(List.of(line(buyerId, itemId, 1), line(buyerId, itemId, 3)), true);
+        assertThat(outboxEventRepository.count()).isEqualTo(3);
+
+        outboxDispatcher.dispatch();
+
+        List<PurchaseEvent> events = new ArrayList<>();
+        inProcessSink.drainTo(events, Integer.MAX_VALUE);
+        assertThat(events).extracting(PurchaseEvent::getQuantity).containsExactly(2, 1, 3);
+        assertThat(events.get(0)).satisfies(event -> {
+            assertThat(event.getPurchaseId()).isEqualTo(single.getPurchaseId());
+            assertThat(event.getBuyerId()).isEqualTo(buyerId);
+            assertThat(event.getItemId()).isEqualTo(itemId);
+            assertThat(event.getUnitPrice()).isEqualTo(2.5);
+            assertThat(event.getEventId()).isNotNull();
+        });
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void fullSinkLeavesEventsInOutboxWithoutCountingAttempts() {
+        Long buyerId = testData.createBuyer();
+        Long itemId = testData.createItem(10);
+        purchaseService.createPurchase(buyerId, itemId, 1);
+        purchaseService.createPurchase(buyerId, itemId, 1);
+        outboxDispatcher.dispatch();
+
+        purchaseService.createPurchase(buyerId, itemId, 1);
+        outboxDispatcher.dispatch();
+        assertThat(outboxEventRepository.findAll()).singleElement()
+                .extracting(OutboxEvent::getAttempts).isEqualTo(0);
+
+        inProcessSink.drainTo(new ArrayList<>(), Integer.MAX_VALUE);
+        outboxDispatcher.dispatch();
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void failedBatchIsRetriedAfterBackoff() {
+        Long buyerId = testData.createBuyer();
+        Long itemId = testData.createItem(10);
+        purchaseService.createPurchase(buyerId, itemId, 1);
+        flakySink.failing = true;
+
+        outboxDispatcher.dispatch();
+        int callsAfterFailure = flakySink.calls;
+        outboxDispatcher.dispatch();
+
+        // Not due again until the backoff has passed
+        assertThat(flakySink.calls).isEqualTo(callsAfterFailure);
+        assertThat(outboxEventRepository.findAll()).singleElement()
+                .satisfies(row -> {
+                    assertThat(row.getAttempts()).isEqualTo(1);
+                    assertThat(row.getNextAttemptAt().getTime()).isGreaterThan(System.currentTimeMillis());
+                });
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void poisonEventIsIsolatedFromItsBatchAndDeadLetteredAfterMaxAttempts() {
+        Long buyerId = testData.createBuyer();
+        Long itemId = testData.createItem(20);
+        purchaseService.createPurchases(List.of(line(buyerId, itemId, 1), line(buyerId, itemId, 13), line(buyerId, itemId, 2)), true);
+        flakySink.poisonQuantity = 13;
+
+        outboxDispatcher.dispatch();
+        List<PurchaseEvent> events = new ArrayList<>();
+        inProcessSink.drainTo(events, Integer.MAX_VALUE);
+        assertThat(events).extracting(PurchaseEvent::getQuantity).containsExactly(1, 2);
+        assertThat(outboxEventRepository.findAll()).singleElement()
+                .extracting(OutboxEvent::getAttempts).isEqualTo(1);
+
+        // Second and last attempt
+        jdbcTemplate.update("update outbox_event set next_attempt_at = next_attempt_at - interval '2' hour");
+        outboxDispatcher.dispatch();
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(outboxEventRepository.countDeadLetters()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForMap("select attempts, last_error from outbox_dead_letter"))
+                .containsEntry("attempts", 2)
+                .containsEntry("last_error", "java.lang.IllegalStateException: Rejected event");
+        jdbcTemplate.update("delete from outbox_dead_letter");
+    }
+
+    private PurchaseRequest line(Long buyerId, Long itemId, int quantity) {
+        PurchaseRequest line = new PurchaseRequest();
+        line.setBuyerId(buyerId);
+        line.setItemId(itemId);
+        line.setQuantity(quantity);
+        return line;
+    }
+
+    static class FlakySink implements PurchaseEventSink {
+
+        volatile boolean failing;
+        volatile int poisonQuantity;
+        volatile int calls;
+
+        @Override
+        public String getName() {
+            return "flaky";
+        }
+
+        @Override
+        public void publish(List<PurchaseEvent> events) {
+            calls++;
+            if (failing) {
+                throw new IllegalStateException("Sink unavailable");
+            }
+            if (events.stream().anyMatch(event -> event.getQuantity() == poisonQuantity)) {
+                throw new IllegalStateException("Rejected event");
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class SinkConfig {
+
+        // Called before the in-process sink, so a rejected event never takes a slot in its queue
+        @Bean
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        FlakySink flakySink() {
+            return new FlakySink();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.TestData;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseBatchLineResult;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseBatchResponse;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseRequest;
+import com.example.AnycompMarketplaceApplication.entity.Item;
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PurchaseBatchTest {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void perLineBatchAcceptsLinesUntilStockRunsOut() {
+        Long buyerId = testData.createBuyer();
+        Long itemId = testData.createItem(5);
+
+        PurchaseBatchResponse response = purchaseService.createPurchases(List.of(
+                line(buyerId, itemId, 2),
+                line(buyerId, itemId, 2),
+                line(buyerId, itemId, 2),
+                line(buyerId, -1L, 1)), false);
+
+        assertThat(response.getAccepted()).isEqualTo(2);
+        assertThat(response.getRejected()).isEqualTo(2);
+        assertThat(response.getResults().get(2).getError()).isEqualTo("Insufficient item quantity. Available: 1");
+        assertThat(response.getResults().get(3).getError()).isEqualTo("Item not found with ID: -1");
+        assertThat(response.getResults().get(0).getPurchase().getPurchaseId()).isNotNull();
+        assertThat(itemRepository.findQuantityById(itemId)).contains(1);
+    }
+
+    @Test
+    void atomicBatchRollsBackEveryLineWhenOneFails() {
+        Long buyerId = testData.createBuyer();
+        Long firstItemId = testData.createItem(10);
+        Long secondItemId = testData.createItem(1);
+
+        PurchaseBatchResponse response = purchaseService.createPurchases(List.of(
+                line(buyerId, firstItemId, 3),
+                line(buyerId, secondItemId, 2)), true);
+
+        assertThat(response.getAccepted()).isZero();
+        assertThat(response.getRejected()).isEqualTo(2);
+        assertThat(itemRepository.findQuantityById(firstItemId)).contains(10);
+        assertThat(itemRepository.findQuantityById(secondItemId)).contains(1);
+    }
+
+    @Test
+    void incompleteLinesAreRejectedOneByOne() {
+        Long buyerId = testData.createBuyer();
+        Long itemId = testData.createItem(5);
+
+        PurchaseBatchResponse response = purchaseService.createPurchases(Arrays.asList(
+                null,
+                line(null, itemId, 1),
+                line(buyerId, null, 1),
+                line(buyerId, itemId, 1)), false);
+
+        assertThat(response.getAccepted()).isEqualTo(1);
+        assertThat(response.getRejected()).isEqualTo(3);
+        assertThat(response.getResults()).extracting(PurchaseBatchLineResult::getError).containsExactly(
+                "Line must have a buyerId and an itemId",
+                "Line must have a buyerId and an itemId",
+                "Line must have a buyerId and an itemId",
+                null);
+        assertThat(itemRepository.findQuantityById(itemId)).contains(4);
+    }
+
+    private PurchaseRequest line(Long buyerId, Long itemId, int quantity) {
+        PurchaseRequest request = new PurchaseRequest();
+        request.setBuyerId(buyerId);
+        request.setItemId(itemId);
+        request.setQuantity(quantity);
+        return request;
+    }
+}
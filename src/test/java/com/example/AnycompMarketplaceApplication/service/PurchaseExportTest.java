@@ -0,0 +1,95 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.TestData;
+import com.example.AnycompMarketplaceApplication.dto.FileFormat;
+import com.example.AnycompMarketplaceApplication.entity.Buyer;
+import com.example.AnycompMarketplaceApplication.entity.Item;
+import com.example.AnycompMarketplaceApplication.entity.Purchase;
+import com.example.AnycompMarketplaceApplication.repository.BuyerRepository;
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
+import com.example.AnycompMarketplaceApplication.repository.PurchaseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PurchaseExportTest {
+
+    @Autowired
+    private PurchaseExportService purchaseExportService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BuyerRepository buyerRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Test
+    void exportsDateRangeOldestFirstAsCsv() {
+        Buyer buyer = buyerRepository.findById(testData.createBuyer("Doe, \"JD\" John")).orElseThrow();
+        Item item = itemRepository.findById(testData.createItem(10)).orElseThrow();
+        Long first = createPurchase(buyer, item, "2001-03-01T10:00:00Z");
+        Long second = createPurchase(buyer, item, "2001-02-01T10:00:00Z");
+        createPurchase(buyer, item, "2001-04-01T00:00:00Z");
+
+        String csv = export(FileFormat.CSV, "2001-01-01T00:00:00Z", "2001-04-01T00:00:00Z");
+
+        assertThat(csv.split("\n")).containsExactly(
+                "purchaseId,buyerId,buyerName,itemId,itemName,quantity,purchaseDate",
+                second + "," + buyer.getId() + ",\"Doe, \"\"JD\"\" John\"," + item.getId() + ",Item,2,2001-02-01T10:00:00Z",
+                first + "," + buyer.getId() + ",\"Doe, \"\"JD\"\" John\"," + item.getId() + ",Item,2,2001-03-01T10:00:00Z");
+    }
+
+    @Test
+    void exportsOneJsonObjectPerLine() {
+        Buyer buyer = buyerRepository.findById(testData.createBuyer()).orElseThrow();
+        Item item = itemRepository.findById(testData.createItem(10)).orElseThrow();
+        Long purchaseId = createPurchase(buyer, item, "2002-06-01T00:00:00Z");
+        createPurchase(buyer, item, "2002-06-02T00:00:00Z");
+
+        String ndjson = export(FileFormat.NDJSON, "2002-01-01T00:00:00Z", "2003-01-01T00:00:00Z");
+
+        assertThat(ndjson).endsWith("\n");
+        String[] lines = ndjson.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"purchaseId\":" + purchaseId + ",").endsWith("}");
+    }
+
+    @Test
+    void rejectsEmptyRange() {
+        assertThatThrownBy(() -> purchaseExportService.checkRange(Instant.parse("2001-01-02T00:00:00Z"),
+                Instant.parse("2001-01-01T00:00:00Z")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private String export(FileFormat format, String from, String to) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        purchaseExportService.exportPurchases(Instant.parse(from), Instant.parse(to), format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private Long createPurchase(Buyer buyer, Item item, String date) {
+        Purchase purchase = new Purchase();
+        purchase.setBuyer(buyer);
+        purchase.setItem(item);
+        purchase.setQuantity(2);
+        purchase.setPurchaseDate(Timestamp.from(Instant.parse(date)));
+        return purchaseRepository.save(purchase).getId();
+    }
+}
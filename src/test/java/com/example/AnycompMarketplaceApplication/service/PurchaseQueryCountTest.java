@@ -0,0 +1,88 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.TestData;
+import com.example.AnycompMarketplaceApplication.dto.CursorPage;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseResponse;
+import com.example.AnycompMarketplaceApplication.repository.PurchaseRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class PurchaseQueryCountTest {
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Test
+    void statementCountPerPageDoesNotGrowWithPageSize() {
+        createPurchases();
+
+        long smallPageStatements = statementsFor(PageRequest.of(1, 5));
+        long largePageStatements = statementsFor(PageRequest.of(0, 30));
+
+        // One select for the page content plus one count query
+        assertThat(smallPageStatements).isEqualTo(2);
+        assertThat(largePageStatements).isEqualTo(smallPageStatements);
+    }
+
+    @Test
+    void cursorPagesVisitEveryPurchaseOnceWithoutCountQuery() {
+        createPurchases();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Set<Long> seen = new HashSet<>();
+        String after = null;
+        int pages = 0;
+
+        do {
+            statistics.clear();
+            CursorPage<PurchaseResponse> page = purchaseService.getPurchasesAfter(after, 7);
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            page.getContent().forEach(purchase -> assertThat(seen.add(purchase.getPurchaseId())).isTrue());
+            after = page.getNextCursor();
+            pages++;
+        } while (after != null);
+
+        assertThat(seen).hasSize((int) purchaseRepository.count());
+        assertThat(pages).isEqualTo((seen.size() + 6) / 7);
+    }
+
+    private void createPurchases() {
+        Long sellerId = testData.createSeller();
+        for (int i = 0; i < 40; i++) {
+            Long itemId = testData.createItem(sellerId, "Item " + i, 1.0, 1);
+            Long buyerId = testData.createBuyer("Buyer " + i);
+            purchaseService.createPurchase(buyerId, itemId, 1);
+        }
+    }
+
+    private long statementsFor(PageRequest pageRequest) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Page<PurchaseResponse> page = purchaseService.getAllPurchases(pageRequest);
+        assertThat(page.getContent()).hasSize(pageRequest.getPageSize());
+        assertThat(page.getContent()).allSatisfy(purchase -> assertThat(purchase.getBuyerName()).startsWith("Buyer"));
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.TestData;
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
+import com.example.AnycompMarketplaceApplication.repository.PurchaseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PurchaseServiceConcurrencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PurchaseServiceConcurrencyTest.class);
+
+    private static final int STOCK = 500;
+    private static final int ATTEMPTS = 2000;
+    private static final int THREADS = 64;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void parallelPurchasesOfHotItemNeverOversell() throws Exception {
+        Long itemId = testData.createItem(testData.createSeller(), "Hot Item", 9.99, STOCK);
+        Long buyerId = testData.createBuyer();
+
+        long purchasesBefore = purchaseRepository.count();
+        double rejectionsBefore = insufficientStockRejections();
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < ATTEMPTS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    purchaseService.createPurchase(buyerId, itemId, 1);
+                    accepted.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        log.info("createPurchase: {} attempts on {} threads in {} ms ({} purchases/s), {} accepted, {} rejected",
+                ATTEMPTS, THREADS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                String.format(Locale.ROOT, "%.0f", ATTEMPTS / (elapsedNanos / 1_000_000_000.0)), accepted.get(), rejected.get());
+
+        assertThat(accepted.get()).isEqualTo(STOCK);
+        assertThat(rejected.get()).isEqualTo(ATTEMPTS - STOCK);
+        assertThat(itemRepository.findQuantityById(itemId)).contains(0);
+        assertThat(purchaseRepository.count() - purchasesBefore).isEqualTo(STOCK);
+        assertThat(insufficientStockRejections() - rejectionsBefore).isEqualTo(ATTEMPTS - STOCK);
+    }
+
+    private double insufficientStockRejections() {
+        return meterRegistry.counter("marketplace.purchase.rejected", "reason", "insufficient_stock").count();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "marketplace.rate-limit.enabled=true")
+@ActiveProfiles("test")
+class RateLimiterTest {
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentCallersNeverTakeMoreThanTheBucketHolds() throws Exception {
+        // Refills one token every 1000 seconds, so nothing comes back during the test
+        RateLimiter.Limit limit = new RateLimiter.Limit("test-concurrent", 50, 0.001);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(() -> {
+                    int acquired = 0;
+                    for (int i = 0; i < 100; i++) {
+                        if (rateLimiter.tryAcquire(limit, "caller", 1).isZero()) {
+                            acquired++;
+                        }
+                    }
+                    return acquired;
+                }));
+            }
+            int acquired = 0;
+            for (Future<Integer> result : results) {
+                acquired += result.get();
+            }
+            assertThat(acquired).isEqualTo(50);
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(meterRegistry.counter("marketplace.ratelimit.throttled", "limit", "test-concurrent").count())
+                .isEqualTo(750);
+    }
+
+    @Test
+    void bucketsAreIndependentPerKeyAndReportTheWait() {
+        RateLimiter.Limit limit = new RateLimiter.Limit("test-keys", 2, 1);
+
+        assertThat(rateLimiter.tryAcquire(limit, "a", 2)).isZero();
+        Duration wait = rateLimiter.tryAcquire(limit, "a", 1);
+        assertThat(wait).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(1));
+        assertThat(rateLimiter.tryAcquire(limit, "b", 1)).isZero();
+        assertThat(rateLimiter.tryAcquire(new RateLimiter.Limit("test-off", 0, 1), "a", 100)).isZero();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.config.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "marketplace.datasource.replica.url=jdbc:h2:mem:replica-${random.uuid};MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;INIT=create table if not exists replica_lag(seconds int)",
+        "marketplace.datasource.replica.username=sa",
+        "marketplace.datasource.replica.lag-query=select coalesce(max(seconds), 0) from replica_lag",
+        "marketplace.datasource.replica.max-lag=5s",
+        "marketplace.datasource.replica.check-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void resetLag() {
+        new JdbcTemplate(replicaDataSource).update("delete from replica_lag");
+        replicaRoutingDataSource.checkReplica();
+    }
+
+    @Test
+    void replicaReadsGoToTheReplicaAndEverythingElseToThePrimary() {
+        replicaRoutingDataSource.checkReplica();
+        assertThat(replicaRoutingDataSource.isReplicaUsable()).isTrue();
+
+        assertThat(database(ReplicaReads.transactionTemplate(transactionManager))).startsWith("replica-");
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        assertThat(database(readOnly)).startsWith("marketplace-");
+        assertThat(database(new TransactionTemplate(transactionManager))).startsWith("marketplace-");
+
+        // Joined from a read-write transaction, a replica read stays on the primary
+        String joined = new TransactionTemplate(transactionManager).execute(status -> {
+            new JdbcTemplate(dataSource).queryForObject("select 1", Integer.class);
+            return database(ReplicaReads.transactionTemplate(transactionManager));
+        });
+        assertThat(joined).startsWith("marketplace-");
+    }
+
+    @Test
+    void laggingReplicaIsBypassedUntilItCatchesUp() {
+        new JdbcTemplate(replicaDataSource).update("insert into replica_lag(seconds) values (30)");
+        replicaRoutingDataSource.checkReplica();
+        assertThat(replicaRoutingDataSource.isReplicaUsable()).isFalse();
+        assertThat(database(ReplicaReads.transactionTemplate(transactionManager))).startsWith("marketplace-");
+
+        new JdbcTemplate(replicaDataSource).update("delete from replica_lag");
+        replicaRoutingDataSource.checkReplica();
+        assertThat(database(ReplicaReads.transactionTemplate(transactionManager))).startsWith("replica-");
+    }
+
+    private String database(TransactionTemplate transactionTemplate) {
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("select database()", String.class).toLowerCase());
+    }
+}
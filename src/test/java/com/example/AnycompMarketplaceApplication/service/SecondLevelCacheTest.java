@@ -0,0 +1,169 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.TestData;
+import com.example.AnycompMarketplaceApplication.dto.FileFormat;
+import com.example.AnycompMarketplaceApplication.dto.ItemRequestDTO;
+import com.example.AnycompMarketplaceApplication.dto.PurchaseRequest;
+import com.example.AnycompMarketplaceApplication.entity.Buyer;
+import com.example.AnycompMarketplaceApplication.entity.Item;
+import com.example.AnycompMarketplaceApplication.entity.Seller;
+import com.example.AnycompMarketplaceApplication.repository.BuyerRepository;
+import com.example.AnycompMarketplaceApplication.repository.ItemRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true"
+})
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private ItemImportService itemImportService;
+
+    @Autowired
+    private BuyerRepository buyerRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void sellerAndBuyerLookupsOnWritePathsComeFromTheCache() {
+        Long sellerId = testData.createSeller();
+        Long buyerId = testData.createBuyer();
+        // Rows inserted with identity ids are cached on their first load
+        Long itemId = itemService.addItem(sellerId, item("Lamp")).getId();
+        purchaseService.createPurchase(buyerId, itemId, 1);
+
+        statistics.clear();
+        itemService.addItem(sellerId, item("Desk"));
+        purchaseService.createPurchase(buyerId, itemId, 1);
+        purchaseService.createPurchase(buyerId, itemId, 1);
+
+        // The seller lookup in addItem, the seller of the cached item in both purchases and both buyer
+        // lookups never reach the database
+        assertThat(statistics.getDomainDataRegionStatistics("seller").getMissCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics("seller").getHitCount()).isEqualTo(3);
+        assertThat(statistics.getDomainDataRegionStatistics("buyer").getMissCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics("buyer").getHitCount()).isEqualTo(2);
+
+        // Stock updates and the native sales-aggregate insert leave the seller, buyer and item regions alone
+        assertThat(entityManagerFactory.getCache().contains(Item.class, itemId)).isTrue();
+        assertThat(entityManagerFactory.getCache().contains(Seller.class, sellerId)).isTrue();
+        assertThat(entityManagerFactory.getCache().contains(Buyer.class, buyerId)).isTrue();
+    }
+
+    @Test
+    void sellerItemPagesAreServedFromTheQueryCacheUntilItemsChange() {
+        Long sellerId = testData.createSeller();
+        itemService.addItem(sellerId, item("Lamp"));
+        PageRequest page = PageRequest.of(0, 10);
+
+        assertThat(itemRepository.findBySellerId(sellerId, page).getTotalElements()).isEqualTo(1);
+        statistics.clear();
+        assertThat(itemRepository.findBySellerId(sellerId, page).getTotalElements()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryRegionStatistics(ItemRepository.SELLER_PAGES_CACHE_REGION).getHitCount()).isPositive();
+
+        itemService.addItem(sellerId, item("Desk"));
+        assertThat(itemRepository.findBySellerId(sellerId, page).getTotalElements()).isEqualTo(2);
+
+        // Imported rows bypass Hibernate, so the import evicts the cached pages itself
+        itemImportService.importItems(sellerId, FileFormat.NDJSON, new ByteArrayInputStream(
+                "{\"name\":\"Chair\",\"price\":5.0}\n".getBytes(StandardCharsets.UTF_8)));
+        assertThat(itemRepository.findBySellerId(sellerId, page).getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void purchasesLeaveCachedSellerPagesAndItemsInPlaceWithoutLosingStock() {
+        Long sellerId = testData.createSeller();
+        Long buyerId = testData.createBuyer();
+        Long itemId = itemService.addItem(sellerId, item("Lamp")).getId();
+        PageRequest page = PageRequest.of(0, 10);
+        itemRepository.findBySellerId(sellerId, page);
+
+        purchaseService.createPurchase(buyerId, itemId, 1);
+        purchaseService.createPurchases(List.of(line(buyerId, itemId, 2)), true);
+        statistics.clear();
+        assertThat(itemRepository.findBySellerId(sellerId, page).getContent()).singleElement()
+                .extracting(Item::getName).isEqualTo("Lamp");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryRegionStatistics(ItemRepository.SELLER_PAGES_CACHE_REGION).getHitCount()).isEqualTo(1);
+
+        // The cached entry still holds the old quantity; editing the item must not write it back
+        assertThat(entityManagerFactory.getCache().contains(Item.class, itemId)).isTrue();
+        ItemRequestDTO rename = item("Desk lamp");
+        itemService.updateItem(itemId, rename);
+        assertThat(itemRepository.findQuantityById(itemId)).contains(7);
+        assertThatThrownBy(() -> purchaseService.createPurchase(buyerId, itemId, 8))
+                .hasMessageContaining("Available: 7");
+        purchaseService.createPurchases(List.of(line(buyerId, itemId, 7)), true);
+        assertThat(itemRepository.findQuantityById(itemId)).contains(0);
+    }
+
+    @Test
+    void replicaReadsDoNotFillTheCache() {
+        Long buyerId = testData.createBuyer();
+        entityManagerFactory.getCache().evict(Buyer.class, buyerId);
+
+        ReplicaReads.transactionTemplate(transactionManager).execute(status -> buyerRepository.findById(buyerId));
+        assertThat(entityManagerFactory.getCache().contains(Buyer.class, buyerId)).isFalse();
+
+        buyerRepository.findById(buyerId);
+        assertThat(entityManagerFactory.getCache().contains(Buyer.class, buyerId)).isTrue();
+    }
+
+    private PurchaseRequest line(Long buyerId, Long itemId, int quantity) {
+        PurchaseRequest line = new PurchaseRequest();
+        line.setBuyerId(buyerId);
+        line.setItemId(itemId);
+        line.setQuantity(quantity);
+        return line;
+    }
+
+    private ItemRequestDTO item(String name) {
+        ItemRequestDTO item = new ItemRequestDTO();
+        item.setName(name);
+        item.setPrice(10.0);
+        item.setQuantity(10);
+        return item;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import com.example.AnycompMarketplaceApplication.TestData;
+import com.example.AnycompMarketplaceApplication.dto.CursorPage;
+import com.example.AnycompMarketplaceApplication.dto.ItemResponseDTO;
+import com.example.AnycompMarketplaceApplication.dto.SellerResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class SellerExpandTest {
+
+    @Autowired
+    private SellerService sellerService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void expandsItemsOfAWholePageInOneQuery() {
+        Long empty = createSeller(0);
+        Long small = createSeller(2);
+        Long large = createSeller(SellerService.MAX_EXPANDED_ITEMS + 5);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        CursorPage<SellerResponseDTO> page = sellerService.getSellersAfter(KeysetCursor.encodeId(empty - 1), 3, "items");
+
+        // One select for the sellers plus one for all of their items
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(SellerResponseDTO::getId).containsExactly(empty, small, large);
+        assertThat(page.getContent()).extracting(seller -> seller.getItems().size())
+                .containsExactly(0, 2, SellerService.MAX_EXPANDED_ITEMS);
+        assertThat(page.getContent()).extracting(SellerResponseDTO::getHasMoreItems).containsExactly(false, false, true);
+        assertThat(page.getContent().get(2).getItems()).extracting(ItemResponseDTO::getSellerId).containsOnly(large);
+    }
+
+    @Test
+    void omitsItemsUnlessExpandedAndRejectsUnknownExpand() throws Exception {
+        Long sellerId = createSeller(3);
+
+        SellerResponseDTO seller = sellerService.getSellerById(sellerId, null).orElseThrow();
+        assertThat(objectMapper.writeValueAsString(seller)).doesNotContain("items");
+        assertThatThrownBy(() -> sellerService.getSellerById(sellerId, "purchases"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Long createSeller(int items) {
+        Long sellerId = testData.createSeller();
+        for (int i = 0; i < items; i++) {
+            testData.createItem(sellerId, "Item " + i, 1.0 + i, 0);
+        }
+        return sellerId;
+    }
+}
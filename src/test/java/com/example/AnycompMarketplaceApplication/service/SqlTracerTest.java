@@ -0,0 +1,95 @@
+package com.example.AnycompMarketplaceApplication.service;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import com.example.AnycompMarketplaceApplication.config.SqlStatementsEndpoint;
+import com.example.AnycompMarketplaceApplication.config.SqlTracer;
+import com.example.AnycompMarketplaceApplication.dto.SqlStatementSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.awaitility.Awaitility.await;
+
+// Every statement counts as slow here
+@SpringBootTest(properties = "marketplace.sql.trace.slow-threshold=0ms")
+@ActiveProfiles("test")
+@ExtendWith(OutputCaptureExtension.class)
+class SqlTracerTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private SqlTracer sqlTracer;
+
+    @Autowired
+    private SqlStatementsEndpoint endpoint;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        endpoint.reset();
+    }
+
+    @Test
+    void statementsAreCountedAndAggregatedByNormalizedText() {
+        sqlTracer.reset();
+        jdbcTemplate.queryForList("select name from seller where id in (1, 2, 3)");
+        jdbcTemplate.queryForList("select name from seller where id in (4,5)");
+        jdbcTemplate.queryForList("select name   from seller where name = 'O''Brien'");
+        assertThat(sqlTracer.get()).isEqualTo(3);
+
+        List<SqlStatementSummary> statements = endpoint.statements(10, "total");
+        assertThat(statements).filteredOn(summary -> summary.getStatement().contains("from seller"))
+                .extracting(SqlStatementSummary::getStatement, SqlStatementSummary::getCount)
+                .containsExactlyInAnyOrder(
+                        tuple("select name from seller where id in (...)", 2L),
+                        tuple("select name from seller where name = ?", 1L));
+        assertThat(statements).isSortedAccordingTo((a, b) -> Double.compare(b.getTotalMillis(), a.getTotalMillis()));
+        assertThat(statements).allSatisfy(summary -> {
+            assertThat(summary.getSlowCount()).isEqualTo(summary.getCount());
+            assertThat(summary.getMaxMillis()).isPositive();
+        });
+        assertThat(endpoint.statements(1, "mean")).hasSize(1);
+        assertThat(meterRegistry.get("marketplace.sql.statement.duration").tag("type", "select").timer().count())
+                .isGreaterThanOrEqualTo(3);
+        // The pool behind the proxy still reports its metrics
+        assertThat(meterRegistry.find("hikaricp.connections.active").gauge()).isNotNull();
+    }
+
+    @Test
+    void slowStatementsAreLoggedThroughTheAsyncAppenderWithoutParameters(CapturedOutput output) {
+        Logger sqlLogger = ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger("marketplace.sql");
+        assertThat(sqlLogger.isAdditive()).isFalse();
+        assertThat(sqlLogger.getAppender("ASYNC_SQL")).isInstanceOfSatisfying(AsyncAppender.class,
+                appender -> assertThat(appender.isNeverBlock()).isTrue());
+
+        for (int i = 0; i < 6; i++) {
+            jdbcTemplate.queryForObject("select count(*) from buyer where id > ?", Long.class, 4242 + i);
+        }
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(output.toString().split("from buyer where id > \\?", -1)).hasSize(7));
+        assertThat(output).contains("WARN").contains("slow").doesNotContain("4242");
+    }
+}